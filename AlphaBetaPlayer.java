@@ -0,0 +1,810 @@
+package chairgame;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * AI for the chair game. It calculates the computer's next move using alpha-beta pruning.
+ *
+ * The move returned is the same as the one {@link MinimaxPlayer} returns with the same depth and
+ * evaluation function, but far fewer game states are visited. Entries left in the transposition
+ * table by earlier, deeper searches can change the move, so a table is cleared for the same
+ * result. The search deepens iteratively up to the maximum depth, or until the time limit of the
+ * move runs out: the root moves are ordered by the scores of the previous iteration, the other
+ * moves by the best move stored in the transposition table and then by the evaluation function.
+ *
+ * The transposition table is looked up by the canonical hash of the game states, so rotations and
+ * reflections of the ring share their entries. This assumes an evaluation function which gives the
+ * same value for symmetric game states, like {@link ChairEvaluationFunction3}; otherwise symmetry
+ * reduction has to be turned off.
+ */
+public class AlphaBetaPlayer extends PlayerImp {
+
+	/**
+	 * The default name of the machine player.
+	 */
+	private static final String	NAME = "Computer";
+
+	/**
+	 * Default value of the maximum depth of the game states' decision tree.
+	 */
+	private static final int	MAX_DEPTH = 10;
+
+	/**
+	 * The clock is read at one in this many plus one visited game states, chosen at random so that
+	 * the threads of a parallel search do not need a shared counter.
+	 */
+	private static final int	CHECK_INTERVAL = 1023;
+
+	/**
+	 * Thrown to abandon a search running out of time.
+	 */
+	static final SearchTimeout	TIMEOUT = new SearchTimeout();
+
+	/**
+	 * Hash of the searching player, the scores in the transposition table are from their view.
+	 */
+	private static final long	IDENTITY_KEY = 0x5DEECE66DL * 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The maximum depth of the game states' decision tree.
+	 */
+	private int	maxDepth = MAX_DEPTH;
+
+	/**
+	 * The evaluation function used by the algorithm.
+	 */
+	private EvaluationFunction<ChairGame>	ef;
+
+	/**
+	 * The table storing the results of the searched game states, or <code>null</code>.
+	 */
+	private TranspositionTable	table = new TranspositionTable();
+
+	/**
+	 * Set if the transposition table is looked up by the canonical hash of the game states.
+	 */
+	private boolean	symmetryReduction = true;
+
+	/**
+	 * The time limit of a move in milliseconds, or <code>0</code> to search to the maximum depth.
+	 */
+	private long	timeLimit;
+
+	/**
+	 * The value of {@link System#nanoTime()} the current search has to stop at, or <code>0</code>.
+	 */
+	private long	deadline;
+
+	/**
+	 * The future of the move of the current search, or <code>null</code> if the search is not
+	 * asynchronous. The search stops when it is cancelled.
+	 */
+	private Future<?>	request;
+
+	/**
+	 * The depth of the last iteration completed by the last search.
+	 */
+	private int	depthReached;
+
+	/**
+	 * The score of the move returned by the last search.
+	 */
+	private int	score;
+
+	/**
+	 * The counters of the current search.
+	 */
+	final SearchCounters	counters = new SearchCounters();
+
+	/**
+	 * The statistics of every search.
+	 */
+	private final SearchMonitor	monitor = new SearchMonitor();
+
+	/**
+	 * The statistics of the last search, or <code>null</code>.
+	 */
+	private volatile SearchStatistics	statistics;
+
+	/**
+	 * Set if the last iteration evaluated a game state at the depth limit.
+	 */
+	private volatile boolean	horizon;
+
+	/**
+	 * Held by the running search, so that the searches of the machine player run one at a time.
+	 */
+	private final Object	searching = new Object();
+
+	/**
+	 * The scratch arrays of the searching threads.
+	 */
+	private final ThreadLocal<Buffers>	buffers = new ThreadLocal<Buffers>() {
+		@Override
+		protected Buffers initialValue() {
+			return new Buffers();
+		}
+	};
+
+	/**
+	 * The best root move fully searched in the current iteration, or <code>-1</code>.
+	 */
+	volatile int	iterationBest;
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param ef The evaluation function to use.
+	 */
+	public AlphaBetaPlayer(Identity identity, EvaluationFunction<ChairGame> ef) {
+		this(NAME, identity, ef);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param maxDepth The maximum depth of the game states' decision tree.
+	 * @param ef The evaluation function to use.
+	 */
+	public AlphaBetaPlayer(Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef) {
+		this(NAME, identity, maxDepth, ef);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param ef The evaluation function to use.
+	 */
+	public AlphaBetaPlayer(String name, Identity identity, EvaluationFunction<ChairGame> ef) {
+		this(name, identity, MAX_DEPTH, ef);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param maxDepth The maximum depth of the game states' decision tree.
+	 * @param ef The evaluation function to use.
+	 */
+	public AlphaBetaPlayer(String name, Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef) {
+		super(name, identity);
+		this.maxDepth = maxDepth;
+		this.ef = ef;
+	}
+
+	/**
+	 * @return <code>false</code> as the machine player is not interactive
+	 */
+	public boolean isInteractive() {
+		return false;
+	}
+
+	/**
+	 * Returns the maximum depth of the game states' decision tree.
+	 *
+	 * @return The maximum depth of the game states' decision tree.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Sets the maximum depth of the game states' decision tree.
+	 *
+	 * @param maxDepth The maximum depth of the game states' decision tree.
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Returns the evaluation function used by the machine player.
+	 *
+	 * @return the evaluation function used by the machine player.
+	 */
+	public EvaluationFunction<ChairGame> getEvaluationFunction() {
+		return ef;
+	}
+
+	/**
+	 * Sets the evaluation function used by the machine player.
+	 *
+	 * @param ef the evaluation function used by the machine player.
+	 */
+	public void setEvaluationFunction(EvaluationFunction<ChairGame> ef) {
+		this.ef = ef;
+		if (table != null) table.clear();
+	}
+
+	/**
+	 * Returns the transposition table used by the machine player.
+	 *
+	 * @return The transposition table, or <code>null</code> if none is used.
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Sets the transposition table used by the machine player.
+	 *
+	 * @param table The transposition table, or <code>null</code> to search without one.
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Returns if rotations and reflections of the ring share their transposition table entries.
+	 *
+	 * @return <code>true</code> if symmetry reduction is used, <code>false</code> otherwise.
+	 */
+	public boolean isSymmetryReduction() {
+		return symmetryReduction;
+	}
+
+	/**
+	 * Sets if rotations and reflections of the ring share their transposition table entries.
+	 *
+	 * @param symmetryReduction <code>true</code> to use symmetry reduction, <code>false</code> otherwise.
+	 */
+	public void setSymmetryReduction(boolean symmetryReduction) {
+		this.symmetryReduction = symmetryReduction;
+		if (table != null) table.clear();
+	}
+
+	/**
+	 * Returns the time limit of a move.
+	 *
+	 * @return The time limit in milliseconds, or <code>0</code> if there is none.
+	 */
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets the time limit of a move. With a time limit the search deepens until the time runs out
+	 * or the maximum depth is reached, and returns the best move of the last iteration, or of the
+	 * interrupted one if it has already found a move at least as good.
+	 *
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search to the maximum depth.
+	 */
+	public void setTimeLimit(long timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Returns the depth of the last iteration completed by the last search.
+	 *
+	 * @return The depth searched to.
+	 */
+	public int getDepthReached() {
+		return depthReached;
+	}
+
+	/**
+	 * Returns the score of the move returned by the last search, from the view of the player. A
+	 * search queued on an executor may replace it before it is read; {@link #searchAsync} returns
+	 * the score with the move.
+	 *
+	 * @return The score of the move in the last iteration searching it.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the number of game states visited during the last search.
+	 *
+	 * @return The number of visited game states.
+	 */
+	public long getNodes() {
+		return counters.nodes.sum();
+	}
+
+	/**
+	 * Returns what the last search did. A search queued on an executor may replace the statistics
+	 * before they are read; {@link #searchAsync} returns them with the move.
+	 *
+	 * @return The statistics of the last search, or <code>null</code> if there was none.
+	 */
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Returns the statistics of every search, which can be registered to be watched through JMX.
+	 *
+	 * @return The monitor of the machine player.
+	 */
+	public SearchMonitor getMonitor() {
+		return monitor;
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state using alpha-beta pruning.
+	 *
+	 * Ties between root moves are broken in favour of the move coming first in
+	 * {@link ChairGame#operators()}, as in {@link MinimaxPlayer}. To keep that choice, a root move
+	 * preceding the best one so far is searched with a window one lower, so that an equal score is
+	 * recognised as exact.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @return The move calculated by alpha-beta pruning.
+	 * @throws GameException If the game state is not one of the chair game, is over, or it is not the
+	 *         player's turn.
+	 */
+	public Operator getOperator(Position position) throws GameException {
+		return search(position, timeLimit, null);
+	}
+
+	/**
+	 * Calculates the move on an executor. The search stops at the time limit like a search with a
+	 * time limit, and soon after the future is cancelled.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param executor The executor to search on.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> for the time limit of the
+	 *        machine player.
+	 * @return The move calculated by alpha-beta pruning.
+	 */
+	@Override
+	public CompletableFuture<Operator> getOperatorAsync(Position position, Executor executor, final long timeLimit) {
+		final Position	game = position.clone();
+		return AsyncSearch.submit(executor, request -> search(game, timeLimit > 0 ? timeLimit : this.timeLimit, request));
+	}
+
+	/**
+	 * Calculates the move on an executor like {@link #getOperatorAsync(Position, Executor, long)},
+	 * with the score and the statistics of its own search.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param executor The executor to search on.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> for the time limit of the
+	 *        machine player.
+	 * @return The move calculated by alpha-beta pruning, with what the search found.
+	 */
+	public CompletableFuture<SearchResult> searchAsync(Position position, Executor executor, final long timeLimit) {
+		final Position	game = position.clone();
+		return AsyncSearch.submit(executor, request -> {
+			synchronized (searching) {
+				Operator	move = searchMove(game, timeLimit > 0 ? timeLimit : this.timeLimit, request);
+				return new SearchResult(move, score, statistics);
+			}
+		});
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state using alpha-beta pruning. The
+	 * state of a search is kept in the machine player, so a search waits for the one running to
+	 * finish.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search to the maximum depth.
+	 * @param request The future of the move, or <code>null</code>.
+	 * @return The move calculated by alpha-beta pruning.
+	 * @throws CancellationException If the future of the move was cancelled.
+	 */
+	final Operator search(Position position, long timeLimit, Future<?> request) throws GameException {
+		synchronized (searching) {
+			return searchMove(position, timeLimit, request);
+		}
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state using alpha-beta pruning, the
+	 * search running alone.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search to the maximum depth.
+	 * @param request The future of the move, or <code>null</code>.
+	 * @return The move calculated by alpha-beta pruning.
+	 * @throws CancellationException If the future of the move was cancelled.
+	 */
+	Operator searchMove(Position position, long timeLimit, Future<?> request) throws GameException {
+		if (!(position instanceof ChairGame) || position.isTerminal() || position.getNext() != identity || maxDepth < 1) {
+			throw new GameException();
+		}
+		ChairGame	game = ((ChairGame) position).clone();
+		List<Sit>	operators = game.operators();
+		int	count = operators.size();
+		int[]	order = new int[count];
+		int[]	scores = new int[count];
+		for (int k = 0; k < count; k++) {
+			order[k] = k;
+			game.apply(operators.get(k));
+			scores[k] = ef.getValue(game, identity);
+			game.undo();
+		}
+		sort(order, scores, count, true);
+
+		counters.start();
+		depthReached = 0;
+		deadline = timeLimit > 0 ? System.nanoTime() + timeLimit * 1000000L : 0;
+		this.request = request;
+		if (table != null) table.newSearch();
+		int	bestIndex = order[0];
+		for (int depth = 1; depth <= maxDepth; depth++) {
+			horizon = false;
+			iterationBest = -1;
+			counters.startIteration();
+			try {
+				bestIndex = searchIteration(game, operators, order, scores, depth);
+			} catch (SearchTimeout e) {
+				counters.endIteration(depth, false);
+				// the previous best move is searched first, so a move which was fully searched in the
+				// interrupted iteration and scored at least as well is at least as good
+				if (iterationBest >= 0) bestIndex = iterationBest;
+				break;
+			}
+			counters.endIteration(depth, true);
+			depthReached = depth;
+			// every line ended before the depth limit, so deeper iterations give the same result
+			if (!horizon) break;
+			sort(order, scores, count, true);
+		}
+		this.request = null;
+		score = scores[bestIndex];
+		statistics = counters.finish(name, depthReached);
+		monitor.record(statistics);
+		if (request != null && request.isCancelled()) throw new CancellationException();
+		return operators.get(bestIndex);
+	}
+
+	/**
+	 * Searches every root move to a given depth.
+	 *
+	 * @param game The game state the move is calculated for.
+	 * @param operators The root moves.
+	 * @param order The order to search the root moves in, as indices into <code>operators</code>.
+	 * @param scores The scores of the root moves, filled in by the search.
+	 * @param depth The depth to search to.
+	 * @return The index of the best root move.
+	 */
+	int searchIteration(ChairGame game, List<Sit> operators, int[] order, int[] scores, int depth) {
+		int	bestScore = Integer.MIN_VALUE;
+		ChairGame	position = game.clone();
+		for (int m : order) {
+			position.apply(operators.get(m));
+			int	score = scores[m] = alphaBeta(position, depth - 1, rootAlpha(m, bestScore, iterationBest), Integer.MAX_VALUE);
+			position.undo();
+			if (isBetter(score, m, bestScore, iterationBest)) {
+				bestScore = score;
+				iterationBest = m;
+			}
+		}
+		return iterationBest;
+	}
+
+	/**
+	 * Returns the alpha to search a root move with. A move preceding the best one so far is searched
+	 * with a window one lower, so that an equal score is recognised as exact.
+	 *
+	 * @param move The index of the root move.
+	 * @param bestScore The score of the best root move so far.
+	 * @param bestMove The index of the best root move so far, or <code>-1</code>.
+	 * @return The lower end of the window.
+	 */
+	static int rootAlpha(int move, int bestScore, int bestMove) {
+		return bestMove < 0 ? Integer.MIN_VALUE : (move < bestMove ? bestScore - 1 : bestScore);
+	}
+
+	/**
+	 * Returns if a root move is better than the best one so far, ties going to the lower index.
+	 *
+	 * @param score The score of the root move.
+	 * @param move The index of the root move.
+	 * @param bestScore The score of the best root move so far.
+	 * @param bestMove The index of the best root move so far, or <code>-1</code>.
+	 * @return <code>true</code> if the move is better, <code>false</code> otherwise.
+	 */
+	static boolean isBetter(int score, int move, int bestScore, int bestMove) {
+		return bestMove < 0 || score > bestScore || (score == bestScore && move < bestMove);
+	}
+
+	/**
+	 * Evaluating a game state with fail-soft alpha-beta pruning. The moves are applied and taken back
+	 * on the game state, which is left as it was unless the search runs out of time.
+	 *
+	 * @param position The game state.
+	 * @param depth The remaining depth.
+	 * @param alpha The score the player is already assured of.
+	 * @param beta The score the opponent is already assured of.
+	 * @return The minimax value of the game state if it is strictly between alpha and beta,
+	 * otherwise a bound on the side of the window it falls on.
+	 */
+	int alphaBeta(ChairGame position, int depth, int alpha, int beta) {
+		return alphaBeta(buffers.get(), position, depth, alpha, beta);
+	}
+
+	/**
+	 * Evaluating a game state with fail-soft alpha-beta pruning, using the scratch arrays of the
+	 * current thread.
+	 */
+	private int alphaBeta(Buffers buffers, ChairGame position, int depth, int alpha, int beta) {
+		countNode();
+		if (position.isTerminal()) {
+			return terminalScore(position);
+		}
+		if (depth == 0) {
+			return horizonScore(position);
+		}
+
+		int	transform = transform(position);
+		long	key = key(position, transform);
+		long	entry = table != null ? table.probe(key) : 0;
+		if (isCutoff(entry, depth, alpha, beta)) {
+			return TranspositionTable.score(entry);
+		}
+
+		boolean	max = position.getNext() == identity;
+		int[]	chairs = buffers.moves(depth, position.size());
+		int	count = orderMoves(position, depth, max, entry, transform, chairs, buffers.keys);
+		int	alphaOrig = alpha, betaOrig = beta;
+		int	bestScore = max ? Integer.MIN_VALUE : Integer.MAX_VALUE, bestMove = -1;
+		for (int k = 0; k < count; k++) {
+			int	chair = chairs[k];
+			position.apply(chair);
+			int	score = alphaBeta(buffers, position, depth - 1, alpha, beta);
+			position.undo();
+			if (max ? score > bestScore : score < bestScore) {
+				bestScore = score;
+				bestMove = chair;
+			}
+			if (max) {
+				if (bestScore > alpha) alpha = bestScore;
+			} else {
+				if (bestScore < beta) beta = bestScore;
+			}
+			if (alpha >= beta) {
+				counters.cutoffs.increment();
+				break;
+			}
+		}
+		store(position, key, transform, depth, alphaOrig, betaOrig, bestScore, bestMove);
+		return bestScore;
+	}
+
+	/**
+	 * Counts a visited game state, and abandons the search if it has run out of time or its move is
+	 * no longer needed.
+	 */
+	void countNode() {
+		counters.nodes.increment();
+		if ((deadline != 0 || request != null) && (ThreadLocalRandom.current().nextInt() & CHECK_INTERVAL) == 0
+				&& ((deadline != 0 && System.nanoTime() - deadline > 0) || (request != null && request.isDone()))) {
+			throw TIMEOUT;
+		}
+	}
+
+	/**
+	 * Returns the score of a game state where the game has ended.
+	 *
+	 * @param position The game state.
+	 * @return The best score if the machine player won, the worst otherwise.
+	 */
+	int terminalScore(ChairGame position) {
+		counters.terminals.increment();
+		return position.getWinner() == identity ? MinimaxPlayer.MAX_SCORE : MinimaxPlayer.MIN_SCORE;
+	}
+
+	/**
+	 * Returns the score of a game state at the depth limit, and notes that the iteration reached it.
+	 *
+	 * @param position The game state.
+	 * @return The value of the evaluation function.
+	 */
+	int horizonScore(ChairGame position) {
+		horizon = true;
+		counters.evaluations.increment();
+		return ef.getValue(position, identity);
+	}
+
+	/**
+	 * Returns the symmetric image of a game state the transposition table stores it as.
+	 *
+	 * @param position The game state.
+	 * @return The canonical image with symmetry reduction, the game state itself otherwise.
+	 */
+	int transform(ChairGame position) {
+		return table != null && symmetryReduction ? position.getCanonicalTransform() : 0;
+	}
+
+	/**
+	 * Returns the transposition table key of a game state.
+	 *
+	 * @param position The game state.
+	 * @param transform The symmetric image the game state is stored as.
+	 * @return The key, or <code>0</code> if there is no transposition table.
+	 */
+	long key(ChairGame position, int transform) {
+		if (table == null) return 0;
+		return position.getHash(transform) ^ (identity == Identity.PLAYER_B ? IDENTITY_KEY : 0);
+	}
+
+	/**
+	 * Returns if a transposition table entry decides the score of a game state for a window. A
+	 * score from the table which might have been based on the depth limit counts as reaching it.
+	 *
+	 * @param entry The packed entry, or <code>0</code>.
+	 * @param depth The remaining depth.
+	 * @param alpha The score the player is already assured of.
+	 * @param beta The score the opponent is already assured of.
+	 * @return <code>true</code> if the score of the entry can be returned, <code>false</code> otherwise.
+	 */
+	boolean isCutoff(long entry, int depth, int alpha, int beta) {
+		if (entry == 0 || !isUsable(entry, depth)) return false;
+		int	score = TranspositionTable.score(entry), bound = TranspositionTable.bound(entry);
+		if (bound == TranspositionTable.EXACT
+				|| (bound == TranspositionTable.LOWER && score >= beta)
+				|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+			if (!isDecisive(score, bound)) horizon = true;
+			counters.tableHits.increment();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the moves of a game state in the order a search would try them, the best move stored
+	 * in the transposition table by the previous searches first.
+	 *
+	 * @param position The game state.
+	 * @param chairs The array to write the indices of the chairs to sit on to.
+	 * @return The number of moves.
+	 */
+	int orderMoves(ChairGame position, int[] chairs) {
+		int	transform = transform(position);
+		long	entry = table != null ? table.probe(key(position, transform)) : 0;
+		return orderMoves(position, 2, position.getNext() == identity, entry, transform, chairs, new int[position.size()]);
+	}
+
+	/**
+	 * Returns the moves of a game state in the order they should be searched: the best move stored
+	 * in the transposition table first, then the rest by the evaluation function.
+	 *
+	 * @param position The game state.
+	 * @param depth The remaining depth.
+	 * @param max <code>true</code> if the machine player moves next.
+	 * @param entry The transposition table entry of the game state, or <code>0</code>.
+	 * @param transform The symmetric image the game state is stored as.
+	 * @param chairs The array to write the indices of the chairs to sit on to.
+	 * @param keys Scratch array for the scores of the moves, indexed by chair.
+	 * @return The number of moves.
+	 */
+	int orderMoves(ChairGame position, int depth, boolean max, long entry, int transform, int[] chairs, int[] keys) {
+		int	count = position.moves(chairs);
+		if (depth > 1) {
+			for (int k = 0; k < count; k++) {
+				position.apply(chairs[k]);
+				keys[chairs[k]] = ef.getValue(position, identity);
+				position.undo();
+			}
+			sort(chairs, keys, count, max);
+		}
+		if (entry != 0 && TranspositionTable.move(entry) >= 0) {
+			int	hashMove = position.inverseTransform(TranspositionTable.move(entry), transform);
+			for (int k = 0; k < count; k++) {
+				if (chairs[k] == hashMove) {
+					System.arraycopy(chairs, 0, chairs, 1, k);
+					chairs[0] = hashMove;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Stores the result of searching a game state in the transposition table.
+	 *
+	 * @param position The game state.
+	 * @param key The transposition table key of the game state.
+	 * @param transform The symmetric image the game state is stored as.
+	 * @param depth The remaining depth.
+	 * @param alpha The lower end of the window the game state was searched with.
+	 * @param beta The upper end of the window the game state was searched with.
+	 * @param score The score found.
+	 * @param move The best move found.
+	 */
+	void store(ChairGame position, long key, int transform, int depth, int alpha, int beta, int score, int move) {
+		if (table == null) return;
+		int	bound = score <= alpha ? TranspositionTable.UPPER
+				: score >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+		table.store(key, depth, bound, score, position.transform(move, transform));
+	}
+
+	/**
+	 * Returns if a transposition table entry gives the score of a search to a given depth. Scores
+	 * depend on the depth, except that a forced win or loss stays forced in a deeper search.
+	 *
+	 * @param entry The packed entry.
+	 * @param depth The remaining depth.
+	 * @return <code>true</code> if the score can be used, <code>false</code> otherwise.
+	 */
+	private static boolean isUsable(long entry, int depth) {
+		int	stored = TranspositionTable.depth(entry);
+		return stored == depth
+				|| (stored < depth && isDecisive(TranspositionTable.score(entry), TranspositionTable.bound(entry)));
+	}
+
+	/**
+	 * Returns if a score proves a forced win or loss.
+	 *
+	 * @param score The score.
+	 * @param bound The bound type of the score.
+	 * @return <code>true</code> if the score is decisive, <code>false</code> otherwise.
+	 */
+	private static boolean isDecisive(int score, int bound) {
+		return (score == MinimaxPlayer.MAX_SCORE && bound != TranspositionTable.UPPER)
+				|| (score == MinimaxPlayer.MIN_SCORE && bound != TranspositionTable.LOWER);
+	}
+
+	/**
+	 * Stable insertion sort of moves by their keys.
+	 *
+	 * @param moves The moves to sort.
+	 * @param keys The keys, indexed by move.
+	 * @param count The number of moves.
+	 * @param descending <code>true</code> to put the highest key first, <code>false</code> for the lowest.
+	 */
+	static void sort(int[] moves, int[] keys, int count, boolean descending) {
+		for (int k = 1; k < count; k++) {
+			int	move = moves[k], key = keys[move], j = k - 1;
+			while (j >= 0 && (descending ? keys[moves[j]] < key : keys[moves[j]] > key)) {
+				moves[j + 1] = moves[j];
+				j--;
+			}
+			moves[j + 1] = move;
+		}
+	}
+
+	/**
+	 * Exception to unwind a search running out of time.
+	 */
+	static class SearchTimeout extends RuntimeException {
+
+		private static final long	serialVersionUID = 1L;
+
+		SearchTimeout() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * Scratch arrays of a searching thread, so that visiting a game state allocates nothing. The
+	 * move lists are kept by remaining depth, which is different for every game state on the path
+	 * searched.
+	 */
+	static final class Buffers {
+
+		private int[][]	moves = new int[0][];
+
+		int[]	keys = new int[0];
+
+		int[] moves(int depth, int size) {
+			if (depth >= moves.length) {
+				moves = Arrays.copyOf(moves, depth + 1);
+			}
+			if (moves[depth] == null || moves[depth].length < size) {
+				moves[depth] = new int[size];
+			}
+			if (keys.length < size) {
+				keys = new int[size];
+			}
+			return moves[depth];
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package chairgame;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the calculation of a move on an executor, completing a future with it, or with the move and
+ * what the search found. The calculation is given the future, so that it can stop as soon as the
+ * future is cancelled.
+ */
+final class AsyncSearch {
+
+	/**
+	 * A calculation of a move.
+	 *
+	 * @param <T> The type of the result.
+	 */
+	interface Search<T> {
+
+		/**
+		 * Calculates the move.
+		 *
+		 * @param request The future of the move, done if the move is no longer needed.
+		 * @return The move, or the result holding it.
+		 * @throws GameException If the move can not be calculated.
+		 * @throws CancellationException If the calculation stopped as the future was cancelled.
+		 */
+		T run(Future<?> request) throws GameException;
+	}
+
+	private AsyncSearch() {
+	}
+
+	/**
+	 * Starts the calculation of a move.
+	 *
+	 * @param executor The executor to calculate the move on.
+	 * @param search The calculation.
+	 * @return The future of the move, failing with the exception of the calculation.
+	 */
+	static <T> CompletableFuture<T> submit(Executor executor, final Search<T> search) {
+		final CompletableFuture<T>	future = new CompletableFuture<T>();
+		try {
+			executor.execute(() -> {
+				// cancelled while waiting for a thread
+				if (future.isDone()) return;
+				try {
+					future.complete(search.run(future));
+				} catch (CancellationException e) {
+					future.cancel(false);
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+}
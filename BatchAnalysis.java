@@ -0,0 +1,390 @@
+package chairgame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Analyses a stream of recorded game states on several threads, writing the best move, its score
+ * and the number of game states searched for each of them in the order they were read.
+ *
+ * A game state is read as its chairs, as text, one game state a line with <code>B</code> for the
+ * boys of PLAYER_A, <code>G</code> for the girls of PLAYER_B and <code>_</code> for the empty
+ * chairs, or as binary records of the number of chairs as an int followed by the value of each
+ * chair as a byte, as {@link ChairGame#getChairs()} gives them. PLAYER_A moves first, so the player
+ * to move is the one with fewer figures, PLAYER_A if they have the same. Each line written is the
+ * number of the game state from zero, the chair to sit on numbered from one, the score and the
+ * number of game states searched, separated by tabs, or the number and a dash and the reason if
+ * the game state can not be analysed.
+ *
+ * At most a fixed number of game states are read ahead of the one written next, so the memory
+ * used does not grow with the stream, and the threads stay busy while a game state takes longer
+ * than the others. Every thread analyses with its own players, created for it by an
+ * {@link Tournament.Entrant}.
+ */
+public class BatchAnalysis {
+
+	/**
+	 * The players analysing the game states.
+	 */
+	private final Tournament.Entrant	entrant;
+
+	/**
+	 * The time limit of a game state in milliseconds, or <code>0</code> for the limits of the
+	 * players.
+	 */
+	private final long	timeLimit;
+
+	/**
+	 * The number of threads analysing.
+	 */
+	private final int	threads;
+
+	/**
+	 * The largest number of game states read but not yet written.
+	 */
+	private final int	window;
+
+	/**
+	 * The players of the threads, by the identity they play.
+	 */
+	private final ThreadLocal<Player[]>	players = ThreadLocal.withInitial(() -> new Player[Identity.values().length]);
+
+	/**
+	 * The number of game states analysed by the last run, and the time it took in nanoseconds.
+	 */
+	private long	count, time;
+
+	/**
+	 * Constructor to create a batch analysis.
+	 *
+	 * @param entrant The players analysing the game states.
+	 * @param timeLimit The time limit of a game state in milliseconds, or <code>0</code> for the
+	 *        limits of the players.
+	 * @param threads The number of threads analysing.
+	 * @param window The largest number of game states read but not yet written.
+	 */
+	public BatchAnalysis(Tournament.Entrant entrant, long timeLimit, int threads, int window) {
+		this.entrant = entrant;
+		this.timeLimit = timeLimit;
+		this.threads = threads;
+		this.window = Math.max(1, window);
+	}
+
+	/**
+	 * Analyses the game states of a stream.
+	 *
+	 * @param in The stream of game states.
+	 * @param binary <code>true</code> if the game states are binary records, <code>false</code> if
+	 *        they are lines of text.
+	 * @param out The stream the results are written to, a line each.
+	 * @throws IOException If the game states can not be read or the results written.
+	 */
+	public void run(InputStream in, boolean binary, Writer out) throws IOException {
+		Source	source = binary ? binarySource(in) : textSource(in);
+		ExecutorService	pool = Executors.newFixedThreadPool(threads);
+		ArrayDeque<CompletableFuture<String>>	pending = new ArrayDeque<CompletableFuture<String>>();
+		long	start = System.nanoTime();
+		count = 0;
+		try {
+			for (byte[] chairs; (chairs = source.next()) != null; count++) {
+				if (pending.size() == window) {
+					out.write(pending.poll().join());
+				}
+				final long	index = count;
+				final byte[]	record = chairs;
+				pending.add(CompletableFuture.supplyAsync(() -> analyse(index, record), pool));
+			}
+			while (!pending.isEmpty()) {
+				out.write(pending.poll().join());
+			}
+			out.flush();
+		} finally {
+			pool.shutdownNow();
+			time = System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Analyses a game state on the current thread.
+	 *
+	 * @param index The number of the game state.
+	 * @param chairs The values of the chairs.
+	 * @return The line of the result.
+	 */
+	private String analyse(long index, byte[] chairs) {
+		ChairGame	position;
+		try {
+			position = position(chairs);
+		} catch (IllegalArgumentException e) {
+			return index + "\t-\t" + e.getMessage() + "\n";
+		}
+		if (position.isTerminal()) return index + "\t-\tgame over\n";
+		Identity	next = position.getNext();
+		Player[]	own = players.get();
+		if (own[next.ordinal()] == null) own[next.ordinal()] = entrant.create(next);
+		Player	player = own[next.ordinal()];
+		Operator	operator;
+		try {
+			// the searching players stop at the time limit on this thread
+			operator = player.getOperatorAsync(position, Runnable::run, timeLimit).join();
+		} catch (CompletionException e) {
+			return index + "\t-\t" + e.getCause() + "\n";
+		}
+		String	score = "-";
+		long	nodes = 0;
+		if (player instanceof AlphaBetaPlayer) {
+			score = Integer.toString(((AlphaBetaPlayer) player).getScore());
+			nodes = ((AlphaBetaPlayer) player).getStatistics().getNodes();
+		} else if (player instanceof MinimaxPlayer) {
+			score = Integer.toString(((MinimaxPlayer) player).getScore());
+			nodes = ((MinimaxPlayer) player).getStatistics().getNodes();
+		} else if (player instanceof MonteCarloPlayer) {
+			nodes = ((MonteCarloPlayer) player).getLastPlayouts();
+		}
+		return index + "\t" + (((Sit) operator).getI() + 1) + "\t" + score + "\t" + nodes + "\n";
+	}
+
+	/**
+	 * Returns the number of game states analysed by the last run.
+	 *
+	 * @return The number of game states.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of game states analysed a second by the last run.
+	 *
+	 * @return The throughput.
+	 */
+	public double getPositionsPerSecond() {
+		return time > 0 ? count * 1e9 / time : 0;
+	}
+
+	/**
+	 * Prints the throughput of the last run.
+	 *
+	 * @param out The stream to print to.
+	 */
+	public void report(PrintStream out) {
+		out.printf("%d game states in %.1f s on %d threads: %.0f game states/s%n", count, time / 1e9, threads,
+				getPositionsPerSecond());
+	}
+
+	/**
+	 * Returns the game state with given chairs, reached by sitting the figures in turn.
+	 *
+	 * @param chairs The values of the chairs.
+	 * @return The game state.
+	 * @throws IllegalArgumentException If no game reaches the chairs.
+	 */
+	static ChairGame position(byte[] chairs) {
+		int[]	a = new int[chairs.length], b = new int[chairs.length];
+		int	countA = 0, countB = 0;
+		for (int i = 0; i < chairs.length; i++) {
+			if (chairs[i] == Identity.PLAYER_A.value()) {
+				a[countA++] = i;
+			} else if (chairs[i] == Identity.PLAYER_B.value()) {
+				b[countB++] = i;
+			} else if (chairs[i] != 0) {
+				throw new IllegalArgumentException("invalid chair " + (i + 1));
+			}
+		}
+		if (chairs.length == 0 || (countA != countB && countA != countB + 1)) {
+			throw new IllegalArgumentException("not a game state");
+		}
+		ChairGame	position = new ChairGame(chairs.length);
+		for (int k = 0; k < countA; k++) {
+			// a boy and a girl never sit next to each other, so any order of the figures is legal
+			if (!position.isApplicable(a[k])) throw new IllegalArgumentException("not a game state");
+			position.apply(a[k]);
+			if (k < countB) {
+				if (!position.isApplicable(b[k])) throw new IllegalArgumentException("not a game state");
+				position.apply(b[k]);
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the line of text of a game state.
+	 *
+	 * @param position The game state.
+	 * @return The chairs, without the end of the line.
+	 */
+	static String format(ChairGame position) {
+		StringBuilder	sb = new StringBuilder(position.size());
+		for (int i = 0; i < position.size(); i++) {
+			byte	v = position.get(i);
+			sb.append(v == Identity.PLAYER_A.value() ? 'B' : v == Identity.PLAYER_B.value() ? 'G' : '_');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes random game states which are not over, reached by random moves from the empty ring, for
+	 * benchmarking.
+	 *
+	 * @param count The number of game states.
+	 * @param size The number of chairs.
+	 * @param seed The seed of the random moves.
+	 * @param binary <code>true</code> to write binary records, <code>false</code> for lines of text.
+	 * @param out The stream to write to.
+	 * @throws IOException If the game states can not be written.
+	 */
+	public static void generate(long count, int size, long seed, boolean binary, PrintStream out) throws IOException {
+		SplittableRandom	random = new SplittableRandom(seed);
+		DataOutputStream	data = new DataOutputStream(new BufferedOutputStream(out));
+		int[]	chairs = new int[size];
+		for (long k = 0; k < count; k++) {
+			// a random game, taken back to a random game state before its end
+			ChairGame	position = new ChairGame(size);
+			int	moves = 0;
+			for (; !position.isTerminal(); moves++) {
+				position.apply(chairs[random.nextInt(position.moves(chairs))]);
+			}
+			for (int back = 1 + random.nextInt(moves); back > 0; back--) {
+				position.undo();
+			}
+			if (binary) {
+				data.writeInt(size);
+				data.write(position.getChairs());
+			} else {
+				data.write((format(position) + "\n").getBytes(StandardCharsets.US_ASCII));
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * A stream of game states.
+	 */
+	private interface Source {
+
+		/**
+		 * Reads the next game state.
+		 *
+		 * @return The values of the chairs, or <code>null</code> at the end of the stream.
+		 */
+		byte[] next() throws IOException;
+	}
+
+	/**
+	 * Returns the game states of lines of text, skipping empty lines and those starting with
+	 * <code>#</code>.
+	 */
+	private static Source textSource(InputStream in) {
+		final BufferedReader	reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+		return () -> {
+			String	line;
+			do {
+				if ((line = reader.readLine()) == null) return null;
+				line = line.trim();
+			} while (line.isEmpty() || line.startsWith("#"));
+			byte[]	chairs = new byte[line.length()];
+			for (int i = 0; i < chairs.length; i++) {
+				char	c = line.charAt(i);
+				// an unknown character is left for the analysis to report
+				chairs[i] = (byte) (c == 'B' ? Identity.PLAYER_A.value() : c == 'G' ? Identity.PLAYER_B.value()
+						: c == '_' || c == '.' ? 0 : 2);
+			}
+			return chairs;
+		};
+	}
+
+	/**
+	 * Returns the game states of binary records.
+	 */
+	private static Source binarySource(InputStream in) {
+		final DataInputStream	data = new DataInputStream(new BufferedInputStream(in));
+		return () -> {
+			int	size;
+			try {
+				size = data.readInt();
+			} catch (EOFException e) {
+				return null;
+			}
+			if (size < 1) throw new IOException("Invalid number of chairs: " + size);
+			byte[]	chairs = new byte[size];
+			data.readFully(chairs);
+			return chairs;
+		};
+	}
+
+	/**
+	 * Analyses the game states of a file, or of the standard input.
+	 *
+	 * @param args The options, the player as in {@link Tournament}, and the file.
+	 */
+	public static void main(String[] args) throws IOException {
+		int	threads = Runtime.getRuntime().availableProcessors(), window = 0, chairs = ChairGame.NUMBER_OF_CHAIRS;
+		long	time = 0, generate = 0, seed = 1;
+		boolean	binary = false;
+		String	output = null, spec = null, input = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-time")) {
+				time = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-window")) {
+				window = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-binary")) {
+				binary = true;
+			} else if (args[i].equals("-out")) {
+				output = args[++i];
+			} else if (args[i].equals("-generate")) {
+				generate = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-chairs")) {
+				chairs = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else if (spec == null && generate == 0) {
+				spec = args[i];
+			} else {
+				input = args[i];
+			}
+		}
+		if (generate > 0) {
+			try (PrintStream out = output != null ? new PrintStream(new FileOutputStream(output)) : System.out) {
+				generate(generate, chairs, seed, binary, out);
+			}
+			return;
+		}
+		if (spec == null) {
+			System.out.println("Usage: BatchAnalysis [-threads n] [-time ms] [-window n] [-binary] [-out file] "
+					+ "minimax:depth[:ef3|bits] | alphabeta:depth[:ef3|bits] | mcts:playouts [file]");
+			System.out.println("       BatchAnalysis -generate n [-chairs n] [-seed n] [-binary] [-out file]");
+			return;
+		}
+		BatchAnalysis	analysis = new BatchAnalysis(Tournament.parse(spec), time, threads,
+				window > 0 ? window : 16 * threads);
+		try (InputStream in = input != null ? new FileInputStream(input) : System.in;
+				Writer out = new BufferedWriter(new OutputStreamWriter(
+						output != null ? new FileOutputStream(output) : System.out, StandardCharsets.US_ASCII))) {
+			analysis.run(in, binary, out);
+		}
+		analysis.report(System.err);
+	}
+
+}
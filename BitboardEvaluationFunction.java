@@ -0,0 +1,48 @@
+package chairgame;
+
+/**
+ * Evaluation function giving the same values as {@link ChairEvaluationFunction3}, computed from
+ * the masks of the ring instead of the chairs one by one.
+ *
+ * The room of a player is the number of their figures with an empty chair next to them, on each
+ * side, and twice the number of those with the chair beyond it empty too. Each of these is the
+ * population count of the player's mask and the empty mask rotated by one or two chairs, so the
+ * whole ring is scored in a fixed number of operations. Rings of more than
+ * {@link ChairGame#MAX_CHAIRS} chairs, which do not fit in a mask, take the room kept by the game
+ * state.
+ */
+public class BitboardEvaluationFunction implements EvaluationFunction<ChairGame> {
+
+	/**
+	 * Method to return the gameState's goodness for a given player.
+	 *
+	 * @param gameState The gameState we want to evaluate.
+	 * @param player The player we want to check the state's goodness for.
+	 */
+	public int getValue(ChairGame gameState, Identity player) {
+		int	size = gameState.size();
+		if (size > ChairGame.MAX_CHAIRS) return gameState.getRoom(player);
+		long	figures = gameState.getMask(player);
+		long	empty = gameState.getEmpty();
+		// chairs with an empty chair one and two places to the right and to the left
+		long	right = rotate(empty, 1, size), left = rotate(empty, size - 1, size);
+		long	secondRight = right & rotate(empty, 2, size), secondLeft = left & rotate(empty, size - 2, size);
+		return Long.bitCount(figures & right) + Long.bitCount(figures & left)
+				+ 2 * (Long.bitCount(figures & secondRight) + Long.bitCount(figures & secondLeft));
+	}
+
+	/**
+	 * Rotates a mask of a ring so that chair <code>i</code> takes the bit of chair <code>i + k</code>.
+	 *
+	 * @param mask The mask.
+	 * @param k The number of chairs to rotate by, may be negative or more than the size of the ring.
+	 * @param size The number of chairs in the ring.
+	 */
+	private static long rotate(long mask, int k, int size) {
+		k = ((k % size) + size) % size;
+		if (k == 0) return mask;
+		long	full = size == 64 ? -1L : (1L << size) - 1;
+		return ((mask >>> k) | (mask << (size - k))) & full;
+	}
+
+}
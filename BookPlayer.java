@@ -0,0 +1,164 @@
+package chairgame;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Machine player taking its moves from an {@link OpeningBook} while the game is in it, and from
+ * another machine player after that.
+ */
+public class BookPlayer extends PlayerImp {
+
+	/**
+	 * The default name of the machine player.
+	 */
+	private static final String	NAME = "Computer";
+
+	/**
+	 * The moves searched in advance.
+	 */
+	private OpeningBook	book;
+
+	/**
+	 * The player moving in the game states which are not in the book.
+	 */
+	private Player	fallback;
+
+	/**
+	 * The number of moves taken from the book and calculated by the other player.
+	 */
+	private long	bookMoves, searchedMoves;
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param book The moves searched in advance.
+	 * @param fallback The player moving when the game is out of the book.
+	 */
+	public BookPlayer(Identity identity, OpeningBook book, Player fallback) {
+		this(NAME, identity, book, fallback);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param book The moves searched in advance.
+	 * @param fallback The player moving when the game is out of the book.
+	 */
+	public BookPlayer(String name, Identity identity, OpeningBook book, Player fallback) {
+		super(name, identity);
+		this.book = book;
+		this.fallback = fallback;
+		fallback.setIdentity(identity);
+	}
+
+	/**
+	 * @return <code>false</code> as the machine player is not interactive
+	 */
+	public boolean isInteractive() {
+		return false;
+	}
+
+	/**
+	 * Sets the player's identity, and the identity of the player moving out of the book.
+	 *
+	 * @param identity The identity the player to be set.
+	 */
+	@Override
+	public void setIdentity(Identity identity) {
+		super.setIdentity(identity);
+		fallback.setIdentity(identity);
+	}
+
+	/**
+	 * Returns the moves searched in advance.
+	 *
+	 * @return The opening book.
+	 */
+	public OpeningBook getBook() {
+		return book;
+	}
+
+	/**
+	 * Sets the moves searched in advance.
+	 *
+	 * @param book The opening book.
+	 */
+	public void setBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Returns the player moving in the game states which are not in the book.
+	 *
+	 * @return The player.
+	 */
+	public Player getFallback() {
+		return fallback;
+	}
+
+	/**
+	 * Returns the number of moves taken from the book.
+	 *
+	 * @return The number of moves.
+	 */
+	public long getBookMoves() {
+		return bookMoves;
+	}
+
+	/**
+	 * Returns the number of moves calculated by the player moving out of the book.
+	 *
+	 * @return The number of moves.
+	 */
+	public long getSearchedMoves() {
+		return searchedMoves;
+	}
+
+	/**
+	 * Looks up the move for the player in the book, or calculates it if the game state is not in it.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @return The move of the book, or the move of the other player.
+	 */
+	public Operator getOperator(Position position) throws GameException {
+		if (position.isTerminal() || position.getNext() != identity) {
+			throw new GameException();
+		}
+		ChairGame	game = (ChairGame) position;
+		int	chair = book.probe(game);
+		if (chair >= 0 && game.isApplicable(chair)) {
+			bookMoves++;
+			return Sit.of(chair);
+		}
+		searchedMoves++;
+		return fallback.getOperator(position);
+	}
+
+	/**
+	 * Looks up the move for the player in the book, or lets the other player calculate it on an
+	 * executor if the game state is not in it.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param executor The executor the other player calculates on.
+	 * @param timeLimit The time limit of the other player in milliseconds, or <code>0</code> for its
+	 *        own limit.
+	 * @return The move of the book, already completed, or the move of the other player.
+	 */
+	@Override
+	public CompletableFuture<Operator> getOperatorAsync(Position position, Executor executor, long timeLimit) {
+		if (!position.isTerminal() && position.getNext() == identity) {
+			int	chair = book.probe((ChairGame) position);
+			if (chair >= 0 && ((ChairGame) position).isApplicable(chair)) {
+				bookMoves++;
+				return CompletableFuture.completedFuture(Sit.of(chair));
+			}
+		}
+		searchedMoves++;
+		return fallback.getOperatorAsync(position, executor, timeLimit);
+	}
+
+}
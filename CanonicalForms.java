@@ -0,0 +1,365 @@
+package chairgame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store of the canonical forms of short partizan games, as used in combinatorial game theory.
+ *
+ * A game is given by the games its Left player (PLAYER_A) and its Right player (PLAYER_B) can move
+ * to. Every game is reduced to its canonical form, the smallest game equal to it, by removing
+ * dominated options and bypassing reversible ones. Canonical forms are unique, so every game is
+ * identified by an <code>int</code>, equal games getting the same one. Comparisons, sums and
+ * negatives are remembered, so the store grows as it is used.
+ */
+public class CanonicalForms {
+
+	/**
+	 * The identifier of the game where nobody can move.
+	 */
+	public static final int	ZERO = 0;
+
+	private static final int[]	NONE = new int[0];
+
+	/**
+	 * The left options of the games, indexed by identifier.
+	 */
+	private final List<int[]>	left = new ArrayList<int[]>();
+
+	/**
+	 * The right options of the games, indexed by identifier.
+	 */
+	private final List<int[]>	right = new ArrayList<int[]>();
+
+	/**
+	 * The identifiers of the games, by their options.
+	 */
+	private final Map<Options, Integer>	ids = new HashMap<Options, Integer>();
+
+	private final Map<Long, Boolean>	leq = new HashMap<Long, Boolean>();
+
+	private final Map<Long, Integer>	sums = new HashMap<Long, Integer>();
+
+	private final Map<Integer, Integer>	negatives = new HashMap<Integer, Integer>();
+
+	private final Map<Integer, Boolean>	numbers = new HashMap<Integer, Boolean>();
+
+	/**
+	 * Constructor to create a store holding the zero game.
+	 */
+	public CanonicalForms() {
+		intern(NONE, NONE);
+	}
+
+	/**
+	 * Returns the number of games in the store.
+	 *
+	 * @return The number of games.
+	 */
+	public int size() {
+		return left.size();
+	}
+
+	/**
+	 * Returns the left options of a game.
+	 *
+	 * @param g The game.
+	 * @return The games Left can move to. The array must not be changed.
+	 */
+	public int[] getLeft(int g) {
+		return left.get(g);
+	}
+
+	/**
+	 * Returns the right options of a game.
+	 *
+	 * @param g The game.
+	 * @return The games Right can move to. The array must not be changed.
+	 */
+	public int[] getRight(int g) {
+		return right.get(g);
+	}
+
+	/**
+	 * Returns the canonical form of a game.
+	 *
+	 * @param leftOptions The games Left can move to.
+	 * @param rightOptions The games Right can move to.
+	 * @return The game.
+	 */
+	public int game(int[] leftOptions, int[] rightOptions) {
+		int[]	l = distinct(leftOptions), r = distinct(rightOptions);
+		boolean	changed = true;
+		while (changed) {
+			l = undominated(l, true);
+			r = undominated(r, false);
+			changed = false;
+			List<Integer>	bypassed = new ArrayList<Integer>();
+			for (int option : l) {
+				int	reversing = -1;
+				for (int o : right.get(option)) {
+					if (lessOrEqual(o, l, r)) {
+						reversing = o;
+						break;
+					}
+				}
+				if (reversing < 0) {
+					bypassed.add(option);
+				} else {
+					for (int o : left.get(reversing)) bypassed.add(o);
+					changed = true;
+				}
+			}
+			l = distinct(toArray(bypassed));
+			bypassed.clear();
+			for (int option : r) {
+				int	reversing = -1;
+				for (int o : left.get(option)) {
+					if (lessOrEqual(l, r, o)) {
+						reversing = o;
+						break;
+					}
+				}
+				if (reversing < 0) {
+					bypassed.add(option);
+				} else {
+					for (int o : right.get(reversing)) bypassed.add(o);
+					changed = true;
+				}
+			}
+			r = distinct(toArray(bypassed));
+		}
+		return intern(l, r);
+	}
+
+	/**
+	 * Compares two games.
+	 *
+	 * @param g The first game.
+	 * @param h The second game.
+	 * @return <code>true</code> if Right wins <code>h - g</code> moving second, that is g &lt;= h.
+	 */
+	public boolean lessOrEqual(int g, int h) {
+		if (g == h) return true;
+		Long	key = ((long) g << 32) | h;
+		Boolean	result = leq.get(key);
+		if (result == null) {
+			result = Boolean.TRUE;
+			for (int o : left.get(g)) {
+				if (lessOrEqual(h, o)) {
+					result = Boolean.FALSE;
+					break;
+				}
+			}
+			if (result) {
+				for (int o : right.get(h)) {
+					if (lessOrEqual(o, g)) {
+						result = Boolean.FALSE;
+						break;
+					}
+				}
+			}
+			leq.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Compares a game of the store with one given by its options.
+	 */
+	private boolean lessOrEqual(int g, int[] l, int[] r) {
+		for (int o : left.get(g)) {
+			if (lessOrEqual(l, r, o)) return false;
+		}
+		for (int o : r) {
+			if (lessOrEqual(o, g)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Compares a game given by its options with one of the store.
+	 */
+	private boolean lessOrEqual(int[] l, int[] r, int h) {
+		for (int o : l) {
+			if (lessOrEqual(h, o)) return false;
+		}
+		for (int o : right.get(h)) {
+			if (lessOrEqual(o, l, r)) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the sum of two games, where each player moves in one of them.
+	 *
+	 * @param g The first game.
+	 * @param h The second game.
+	 * @return The sum.
+	 */
+	public int add(int g, int h) {
+		if (g == ZERO) return h;
+		if (h == ZERO) return g;
+		Long	key = g < h ? ((long) g << 32) | h : ((long) h << 32) | g;
+		Integer	sum = sums.get(key);
+		if (sum == null) {
+			int[]	gl = left.get(g), gr = right.get(g), hl = left.get(h), hr = right.get(h);
+			int[]	l = new int[gl.length + hl.length], r = new int[gr.length + hr.length];
+			for (int i = 0; i < gl.length; i++) l[i] = add(gl[i], h);
+			for (int i = 0; i < hl.length; i++) l[gl.length + i] = add(g, hl[i]);
+			for (int i = 0; i < gr.length; i++) r[i] = add(gr[i], h);
+			for (int i = 0; i < hr.length; i++) r[gr.length + i] = add(g, hr[i]);
+			sum = game(l, r);
+			sums.put(key, sum);
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the negative of a game, where the players change roles.
+	 *
+	 * @param g The game.
+	 * @return The negative.
+	 */
+	public int negate(int g) {
+		Integer	negative = negatives.get(g);
+		if (negative == null) {
+			int[]	gl = left.get(g), gr = right.get(g);
+			int[]	l = new int[gr.length], r = new int[gl.length];
+			for (int i = 0; i < gr.length; i++) l[i] = negate(gr[i]);
+			for (int i = 0; i < gl.length; i++) r[i] = negate(gl[i]);
+			negative = intern(distinct(l), distinct(r));
+			negatives.put(g, negative);
+			negatives.put(negative, g);
+		}
+		return negative;
+	}
+
+	/**
+	 * Returns if a game is a number: every option is a number, and every left option is less than
+	 * every right one. A player never needs to move in a number while there is another game.
+	 *
+	 * @param g The game.
+	 * @return <code>true</code> if the game is a number, <code>false</code> otherwise.
+	 */
+	public boolean isNumber(int g) {
+		Boolean	result = numbers.get(g);
+		if (result == null) {
+			result = Boolean.TRUE;
+			for (int l : left.get(g)) {
+				if (!isNumber(l)) result = Boolean.FALSE;
+				for (int r : right.get(g)) {
+					if (lessOrEqual(r, l)) result = Boolean.FALSE;
+				}
+			}
+			for (int r : right.get(g)) {
+				if (!isNumber(r)) result = Boolean.FALSE;
+			}
+			numbers.put(g, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns if Left wins a game moving first.
+	 *
+	 * @param g The game.
+	 * @return <code>true</code> if g is not &lt;= 0.
+	 */
+	public boolean leftWinsFirst(int g) {
+		return !lessOrEqual(g, ZERO);
+	}
+
+	/**
+	 * Returns if Right wins a game moving first.
+	 *
+	 * @param g The game.
+	 * @return <code>true</code> if g is not &gt;= 0.
+	 */
+	public boolean rightWinsFirst(int g) {
+		return !lessOrEqual(ZERO, g);
+	}
+
+	private int intern(int[] l, int[] r) {
+		Arrays.sort(l);
+		Arrays.sort(r);
+		Options	options = new Options(l, r);
+		Integer	id = ids.get(options);
+		if (id == null) {
+			id = left.size();
+			left.add(l);
+			right.add(r);
+			ids.put(options, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Removes the options of a player which are no better for them than another option.
+	 */
+	private int[] undominated(int[] options, boolean forLeft) {
+		boolean[]	dominated = new boolean[options.length];
+		int	count = options.length;
+		for (int i = 0; i < options.length; i++) {
+			for (int j = 0; j < options.length; j++) {
+				if (i != j && !dominated[j]
+						&& (forLeft ? lessOrEqual(options[i], options[j]) : lessOrEqual(options[j], options[i]))) {
+					dominated[i] = true;
+					count--;
+					break;
+				}
+			}
+		}
+		int[]	result = new int[count];
+		for (int i = 0, k = 0; i < options.length; i++) {
+			if (!dominated[i]) result[k++] = options[i];
+		}
+		return result;
+	}
+
+	private static int[] distinct(int[] options) {
+		int[]	sorted = options.clone();
+		Arrays.sort(sorted);
+		int	count = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) sorted[count++] = sorted[i];
+		}
+		return Arrays.copyOf(sorted, count);
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[]	array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+		return array;
+	}
+
+	/**
+	 * The sorted options of a game, as a key of the store.
+	 */
+	private static final class Options {
+
+		private final int[]	l, r;
+
+		private final int	hash;
+
+		Options(int[] l, int[] r) {
+			this.l = l;
+			this.r = r;
+			this.hash = 31 * Arrays.hashCode(l) + Arrays.hashCode(r);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Options && Arrays.equals(((Options) o).l, l) && Arrays.equals(((Options) o).r, r);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
@@ -12,6 +12,20 @@ public class ChairEvaluationFunction3 implements EvaluationFunction<ChairGame>{
 	 * @param player The player we want to check the state's goodness for.
 	 */
 	public int getValue(ChairGame gameState, Identity player) {
+		// the chairs the player can place a sign next to their figures, kept up to date by the
+		// game state as the figures are placed; the opponent's chairs were never taken away
+		return gameState.getRoom(player);
+	}
+
+	/**
+	 * Scans the ring for the gameState's goodness for a given player, as the evaluation did before
+	 * the game state kept it up to date. It is the reference {@link ChairGame#getRoom(Identity)}
+	 * is checked against.
+	 * 
+	 * @param gameState The gameState we want to evaluate.
+	 * @param player The player we want to check the state's goodness for.
+	 */
+	static int scan(ChairGame gameState, Identity player) {
 		/**
 		 * The number of chairs the player can place a sign.
 		 */
@@ -22,7 +36,7 @@ public class ChairEvaluationFunction3 implements EvaluationFunction<ChairGame>{
 		 */
 		int badChair = 0; 
  
-		for( int i = 0; i < gameState.getChairs().length; i++ )
+		for( int i = 0; i < gameState.size(); i++ )
 			if ( gameState.get(i) == player.value() ){
 				if( gameState.getRight(i) == 0 ){
 					goodChair++;
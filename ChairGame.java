@@ -2,9 +2,24 @@ package chairgame;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Class to represent a game state.
+ *
+ * The ring is stored as two bitsets, one for each player, packed into arrays of longs. The bit of
+ * chair <code>i</code> is bit <code>i + 2</code>, and the two bits at both ends repeat the chairs
+ * from the other end of the ring, so the neighbours of a chair are read without wrapping around.
+ * The chairs each player can sit on are kept in a {@link MoveSet} for each player, updated for the
+ * three chairs a move changes and given back by {@link #undo()}, so the cost of a move does not
+ * depend on the size of the ring, and listing or counting the moves only costs as much as the
+ * number of moves. Rings of at most
+ * {@link #MAX_CHAIRS} chairs can also be read as single masks, and only those are reduced by
+ * symmetry.
+ *
+ * The symmetric images of the ring are numbered: image <code>t &lt; size</code> is the ring rotated
+ * by <code>t</code> chairs, image <code>size + t</code> is the ring reflected and then rotated by
+ * <code>t</code> chairs.
  * 
  * @author Laszlo Szoboszlai
  *
@@ -16,29 +31,235 @@ public class ChairGame implements Position {
 	 * The default number of chairs
 	 */
 	public static final int	NUMBER_OF_CHAIRS = 14;
+
+	/**
+	 * The maximum number of chairs a single mask can hold.
+	 */
+	public static final int	MAX_CHAIRS = 64;
+
+	/**
+	 * The maximum number of chairs a game state packed into a single long can hold, see
+	 * {@link #pack()}.
+	 */
+	public static final int	MAX_PACKED_CHAIRS = 31;
+
+	/**
+	 * The maximum number of chairs of a ring the game states of which are indexed, see
+	 * {@link #getIndex()}.
+	 */
+	public static final int	MAX_INDEXED_CHAIRS = 39;
+
+	/**
+	 * The number of bits repeating the other end of the ring before and after the chairs.
+	 */
+	private static final int	PAD = 2;
+
+	/**
+	 * The number of chairs in the ring.
+	 */
+	private final int	size;
+
+	/**
+	 * The mask with a bit set for every chair of a ring of at most {@link #MAX_CHAIRS} chairs.
+	 */
+	private final long	full;
+
+	/**
+	 * The chairs occupied by PLAYER_A, padded at both ends.
+	 */
+	private long[]	maskA;
+
+	/**
+	 * The chairs occupied by PLAYER_B, padded at both ends.
+	 */
+	private long[]	maskB;
+
+	/**
+	 * The chairs PLAYER_A can sit on.
+	 */
+	private MoveSet	movesA;
+
 	/**
-	 * The byte array storing the numbers representing the chairs.
+	 * The chairs PLAYER_B can sit on.
 	 */
-	private byte[] chairs;
+	private MoveSet	movesB;
 
 	private Identity	player = Identity.PLAYER_A;
 
+	/**
+	 * The Zobrist keys of the figures, indexed by <code>2 * chair + (PLAYER_A ? 0 : 1)</code>.
+	 */
+	private static final long[]	KEYS = new long[2 * MAX_CHAIRS];
+
+	/**
+	 * The Zobrist key of PLAYER_B being the next player.
+	 */
+	private static final long	SIDE_KEY;
+
+	/**
+	 * The powers of 3, the values of the digits of the index.
+	 */
+	private static final long[]	POW3 = new long[MAX_INDEXED_CHAIRS + 1];
+
+	static {
+		Random	random = new Random(0x43484149524741L);
+		for (int i = 0; i < KEYS.length; i++) {
+			KEYS[i] = random.nextLong();
+		}
+		SIDE_KEY = random.nextLong();
+		POW3[0] = 1;
+		for (int i = 1; i < POW3.length; i++) {
+			POW3[i] = 3 * POW3[i - 1];
+		}
+	}
+
+	/**
+	 * The Zobrist hash of the figures, maintained incrementally.
+	 */
+	private long	hash;
+
+	/**
+	 * The chairs sat on by {@link #apply(int)}, in order, to be reverted by {@link #undo()}.
+	 */
+	private int[]	history;
+
+	/**
+	 * The moves each move of the history took away, see {@link #apply(int)}.
+	 */
+	private byte[]	taken;
+
+	/**
+	 * The room of PLAYER_A and PLAYER_B before each move of the history, two entries a move.
+	 */
+	private int[]	rooms;
+
+	/**
+	 * The room around the figures of PLAYER_A and PLAYER_B, see {@link #getRoom(Identity)}.
+	 */
+	private int	roomA, roomB;
+
+	/**
+	 * The number of moves in the history.
+	 */
+	private int	historySize;
+
 	/**
 	 * Constructor to create the game with default number of chairs.
 	 */
 	ChairGame(){
-		chairs = new byte[NUMBER_OF_CHAIRS];
+		this(NUMBER_OF_CHAIRS);
+	}
+
+	/**
+	 * Constructor to create the game with a given number of chairs.
+	 *
+	 * @param size The number of chairs in the ring.
+	 */
+	public ChairGame(int size){
+		if (size < 1 || size > Integer.MAX_VALUE - 2 * PAD - 64) {
+			throw new IllegalArgumentException("Invalid number of chairs: " + size);
+		}
+		this.size = size;
+		this.full = size >= MAX_CHAIRS ? -1L : (1L << size) - 1;
+		this.maskA = new long[(size + 2 * PAD + 63) >>> 6];
+		this.maskB = new long[maskA.length];
+		this.movesA = new MoveSet(size);
+		this.movesB = new MoveSet(size);
+		this.history = new int[size];
+		this.taken = new byte[size];
+		this.rooms = new int[2 * size];
 	}
 
 	/**
-	 * Returns the byte array storing the values representing the chairs.
+	 * Returns the number of chairs in the ring.
+	 *
+	 * @return The number of chairs.
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Returns a byte array storing the values representing the chairs.
+	 * The array is a copy, changing it does not affect the game state.
 	 * 
 	 * @return byte array representing chairs.
 	 */
 	public byte[] getChairs(){
+		byte[] chairs = new byte[size];
+		for (int i = 0; i < size; i++) {
+			chairs[i] = get(i);
+		}
 		return chairs;
 	}
 
+	/**
+	 * Returns the chairs occupied by a given player, in a ring of at most {@link #MAX_CHAIRS} chairs.
+	 *
+	 * @param identity The player.
+	 * @return Mask with bit <code>i</code> set if the player sits on chair <code>i</code>.
+	 * @throws IllegalStateException If the ring has more than {@link #MAX_CHAIRS} chairs.
+	 */
+	public long getMask(Identity identity){
+		switch (identity) {
+		case PLAYER_A:	return mask(maskA);
+		case PLAYER_B:	return mask(maskB);
+		default:	return getEmpty();
+		}
+	}
+
+	/**
+	 * Returns the chairs nobody sits on, in a ring of at most {@link #MAX_CHAIRS} chairs.
+	 *
+	 * @return Mask of the empty chairs.
+	 * @throws IllegalStateException If the ring has more than {@link #MAX_CHAIRS} chairs.
+	 */
+	public long getEmpty(){
+		return full & ~(mask(maskA) | mask(maskB));
+	}
+
+	/**
+	 * Returns the chairs a given player can sit on, in a ring of at most {@link #MAX_CHAIRS} chairs.
+	 *
+	 * @param identity The player.
+	 * @return Mask of the empty chairs with no opponent figure next to them.
+	 * @throws IllegalStateException If the ring has more than {@link #MAX_CHAIRS} chairs.
+	 */
+	public long getMoves(Identity identity){
+		checkMask();
+		return moveSet(identity).first();
+	}
+
+	/**
+	 * Returns the chairs the actual player can sit on, in a ring of at most {@link #MAX_CHAIRS}
+	 * chairs.
+	 *
+	 * @return Mask of the applicable chairs.
+	 * @throws IllegalStateException If the ring has more than {@link #MAX_CHAIRS} chairs.
+	 */
+	public long getMoves(){
+		return getMoves(player);
+	}
+
+	/**
+	 * Returns the chairs of a padded bitset as a single mask.
+	 *
+	 * @param bits The padded bitset.
+	 * @return Mask with bit <code>i</code> set for chair <code>i</code>.
+	 */
+	private long mask(long[] bits){
+		checkMask();
+		long	mask = bits[0] >>> PAD;
+		if (bits.length > 1) mask |= bits[1] << (64 - PAD);
+		return mask & full;
+	}
+
+	private void checkMask(){
+		if (size > MAX_CHAIRS) {
+			throw new IllegalStateException("A ring of " + size + " chairs does not fit in a mask");
+		}
+	}
+
 	public Identity getNext() {
 		return player;
 	}
@@ -46,10 +267,77 @@ public class ChairGame implements Position {
 	/**
 	 * Checks if there is any possible move left.
 	 * 
-	 * @return <code>true</code> if there is a possible move left <code>false</code> otherwise.
+	 * @return <code>true</code> if there is no possible move left <code>false</code> otherwise.
 	 */
 	public boolean isTerminal() {
-		return this.operators().isEmpty();
+		return !hasMoves();
+	}
+
+	/**
+	 * Checks if the actual player can sit anywhere, without building the list of operators.
+	 *
+	 * @return <code>true</code> if there is a possible move <code>false</code> otherwise.
+	 */
+	public boolean hasMoves() {
+		return moveSet(player).size() != 0;
+	}
+
+	/**
+	 * Returns the number of chairs a given player can sit on.
+	 *
+	 * @param identity The player.
+	 * @return The number of applicable chairs.
+	 */
+	public int getMoveCount(Identity identity) {
+		return moveSet(identity).size();
+	}
+
+	/**
+	 * Returns the number of chairs the actual player can sit on.
+	 *
+	 * @return The number of applicable chairs.
+	 */
+	public int getMoveCount() {
+		return moveSet(player).size();
+	}
+
+	/**
+	 * Writes the chairs the actual player can sit on into a buffer, in increasing order.
+	 *
+	 * @param buffer The array to write the indices of the chairs to, at least
+	 *        {@link #getMoveCount()} long.
+	 * @return The number of chairs written.
+	 */
+	public int moves(int[] buffer) {
+		return moveSet(player).toArray(buffer);
+	}
+
+	/**
+	 * Writes the chairs a given player can sit on into a buffer, in increasing order.
+	 *
+	 * @param identity The player.
+	 * @param buffer The array to write the indices of the chairs to, at least
+	 *        {@link #getMoveCount(Identity)} long.
+	 * @return The number of chairs written.
+	 */
+	public int moves(Identity identity, int[] buffer) {
+		return moveSet(identity).toArray(buffer);
+	}
+
+	/**
+	 * Returns the room around the figures of a given player: every empty chair next to one of their
+	 * figures counts one, and two more if the chair beyond it is empty too. A move only changes the
+	 * room of the figures at most two chairs away, so the room is kept up to date by the moves.
+	 *
+	 * @param identity The player.
+	 * @return The room of the player.
+	 */
+	public int getRoom(Identity identity) {
+		return identity == Identity.PLAYER_A ? roomA : roomB;
+	}
+
+	private MoveSet moveSet(Identity identity) {
+		return identity == Identity.PLAYER_A ? movesA : movesB;
 	}
 
 	/**
@@ -72,7 +360,13 @@ public class ChairGame implements Position {
 			copy = (ChairGame) super.clone();
 		} catch (CloneNotSupportedException cne) {}
 
-		copy.chairs = chairs.clone();		
+		copy.maskA = maskA.clone();
+		copy.maskB = maskB.clone();
+		copy.movesA = movesA.clone();
+		copy.movesB = movesB.clone();
+		copy.history = history.clone();
+		copy.taken = taken.clone();
+		copy.rooms = rooms.clone();
 
 		return copy;
 	}
@@ -84,7 +378,17 @@ public class ChairGame implements Position {
 	 * @return The value of the chair.
 	 */
 	public byte get(int i){
-		return chairs[i];
+		return value(i + PAD);
+	}
+
+	/**
+	 * Returns the value of a bit of the padded bitsets.
+	 *
+	 * @param p The index of the bit.
+	 * @return The value of the chair the bit stands for.
+	 */
+	private byte value(int p){
+		return (byte) (((maskA[p >>> 6] >>> p) & 1) - ((maskB[p >>> 6] >>> p) & 1));
 	}
 
 	/**
@@ -94,8 +398,7 @@ public class ChairGame implements Position {
 	 * @return The chair's value on the left of the given chair.
 	 */
 	public int getLeft( int i ){
-		if ( i==0 ) { return chairs[NUMBER_OF_CHAIRS-1]; }  	
-		return chairs[ i - 1 ];
+		return value( i + PAD - 1 );
 	} 
 
 	/**
@@ -105,8 +408,7 @@ public class ChairGame implements Position {
 	 * @return The chair's value on the right of the given chair.
 	 */
 	public int getRight( int i ){
-		if ( i == NUMBER_OF_CHAIRS-1 ) {return chairs[0];}  	
-		return chairs[ i + 1 ];
+		return value( i + PAD + 1 );
 	}
 
 	/**
@@ -116,9 +418,7 @@ public class ChairGame implements Position {
 	 * @return The value of the chair which is second on the left.
 	 */
 	public int getSecondLeft(int i){
-		if ( i==1 ) {return chairs[NUMBER_OF_CHAIRS-1];}  	
-		if ( i==0 ) {return chairs[NUMBER_OF_CHAIRS-2];} 
-		return chairs[i-2];
+		return value( i + PAD - 2 );
 	} 
 
 	/**
@@ -128,9 +428,7 @@ public class ChairGame implements Position {
 	 * @return The value of the chair which is second on the right.
 	 */
 	public int getSecondRight(int i){
-		if (i==NUMBER_OF_CHAIRS-2) {return chairs[0];}  	
-		if (i==NUMBER_OF_CHAIRS-1) {return chairs[1];} 
-		return chairs[i+2];
+		return value( i + PAD + 2 );
 	}
 
 	/**
@@ -140,18 +438,500 @@ public class ChairGame implements Position {
 	 * @param value
 	 */
 	public void set(int i,byte value){
-		chairs[i]=value;
+		addRoom(i, -1);
+		toggle(i, get(i));
+		toggle(i, value);
+		// the chair and its copies in the padding
+		int	p = i + PAD;
+		for (int q = p % size; q < size + 2 * PAD; q += size) {
+			long	bit = 1L << q;
+			maskA[q >>> 6] &= ~bit;
+			maskB[q >>> 6] &= ~bit;
+			if (value == Identity.PLAYER_A.value()) {
+				maskA[q >>> 6] |= bit;
+			} else if (value == Identity.PLAYER_B.value()) {
+				maskB[q >>> 6] |= bit;
+			}
+		}
+		update(i == 0 ? size - 1 : i - 1);
+		update(i);
+		update(i == size - 1 ? 0 : i + 1);
+		addRoom(i, 1);
 	}
 
 	/**
-	 * Puts the actual player's sign on a chair.
-	 * 
+	 * Adds or takes away the room of the figures a change of a chair can affect, the ones at most
+	 * two chairs away from it.
+	 *
+	 * @param i The index of the chair.
+	 * @param sign <code>1</code> to add the room, <code>-1</code> to take it away.
+	 */
+	private void addRoom(int i, int sign){
+		if (size < 5) {
+			// every chair is at most two chairs away
+			for (int j = 0; j < size; j++) {
+				addRoomOf(j, sign);
+			}
+			return;
+		}
+		for (int j = i - 2; j <= i + 2; j++) {
+			addRoomOf(j < 0 ? j + size : j >= size ? j - size : j, sign);
+		}
+	}
+
+	/**
+	 * Changes the room by a figure placed on an empty chair of a ring of at least five chairs: the
+	 * figure gets its room, the figures next to it lose their room towards it, and the figures two
+	 * chairs away lose the chair beyond their empty neighbour.
+	 *
+	 * @param i The index of the chair.
+	 */
+	private void addRoomOfMove(int i){
+		int	p = i + PAD;
+		addRoomOf(i, 1);
+		for (int d = -1; d <= 1; d += 2) {
+			byte	v = value(p + d);
+			int	lost = 2;
+			if (v != 0) {
+				lost = value(p - d) == 0 ? 3 : 1;
+			} else {
+				v = value(p + 2 * d);
+			}
+			if (v == Identity.PLAYER_A.value()) {
+				roomA -= lost;
+			} else if (v == Identity.PLAYER_B.value()) {
+				roomB -= lost;
+			}
+		}
+	}
+
+	/**
+	 * Adds or takes away the room of the figure on a chair, see {@link #getRoom(Identity)}.
+	 */
+	private void addRoomOf(int j, int sign){
+		int	p = j + PAD;
+		byte	v = value(p);
+		if (v == 0) return;
+		int	room = 0;
+		if (value(p + 1) == 0) room += value(p + 2) == 0 ? 3 : 1;
+		if (value(p - 1) == 0) room += value(p - 2) == 0 ? 3 : 1;
+		if (v == Identity.PLAYER_A.value()) {
+			roomA += sign * room;
+		} else {
+			roomB += sign * room;
+		}
+	}
+
+	/**
+	 * Updates if the players can sit on a chair.
+	 *
+	 * @param i The index of the chair.
+	 */
+	private void update(int i){
+		int	p = i + PAD;
+		boolean	empty = value(p) == 0;
+		boolean	a = empty && ((maskB[(p - 1) >>> 6] >>> (p - 1)) & 1) == 0 && ((maskB[(p + 1) >>> 6] >>> (p + 1)) & 1) == 0;
+		boolean	b = empty && ((maskA[(p - 1) >>> 6] >>> (p - 1)) & 1) == 0 && ((maskA[(p + 1) >>> 6] >>> (p + 1)) & 1) == 0;
+		movesA.set(i, a);
+		movesB.set(i, b);
+	}
+
+	/**
+	 * Adds or removes a figure's Zobrist key.
+	 *
 	 * @param i The index of the chair.
+	 * @param value The value of the figure, nothing happens for an empty chair.
+	 */
+	private void toggle(int i, int value){
+		if (value == 0) return;
+		hash ^= key(2 * i + (value == Identity.PLAYER_A.value() ? 0 : 1));
+	}
+
+	/**
+	 * Returns a Zobrist key of a figure. Beyond the table the keys are mixed from the index.
+	 *
+	 * @param k <code>2 * chair + (PLAYER_A ? 0 : 1)</code>.
+	 * @return The key.
+	 */
+	private static long key(int k){
+		if (k < KEYS.length) return KEYS[k];
+		long	z = k * 0x9E3779B97F4A7C15L + 0x43484149524741L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the Zobrist hash of the game state.
+	 *
+	 * @return The hash of the figures and the next player.
+	 */
+	public long getHash(){
+		return hash ^ (player == Identity.PLAYER_B ? SIDE_KEY : 0);
+	}
+
+	/**
+	 * Returns the Zobrist hash of a symmetric image of the game state.
+	 *
+	 * @param t The index of the symmetric image, see {@link #transform(int, int)}.
+	 * @return The hash of the figures of the image and the next player.
+	 */
+	public long getHash(int t){
+		if (t == 0) return getHash();
+		long	h = player == Identity.PLAYER_B ? SIDE_KEY : 0;
+		for (long a = image(mask(maskA), t); a != 0; a &= a - 1) {
+			h ^= KEYS[2 * Long.numberOfTrailingZeros(a)];
+		}
+		for (long b = image(mask(maskB), t); b != 0; b &= b - 1) {
+			h ^= KEYS[2 * Long.numberOfTrailingZeros(b) + 1];
+		}
+		return h;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the game state which is the same for every rotation and
+	 * reflection of the ring: the hash of its canonical image.
+	 *
+	 * @return The canonical hash of the game state.
+	 */
+	public long getCanonicalHash(){
+		return getHash(getCanonicalTransform());
+	}
+
+	/**
+	 * Returns the symmetry mapping the game state to its canonical image, the image with the
+	 * smallest masks. Rings of more than {@link #MAX_CHAIRS} chairs are not reduced.
+	 *
+	 * @return The index of the symmetric image, see {@link #transform(int, int)}.
+	 */
+	public int getCanonicalTransform(){
+		if (size > MAX_CHAIRS) return 0;
+		long	maskA = mask(this.maskA), maskB = mask(this.maskB);
+		int	best = 0;
+		long	bestA = maskA, bestB = maskB;
+		for (int t = 1; t < 2 * size; t++) {
+			long	a = image(maskA, t);
+			int	compare = Long.compareUnsigned(a, bestA);
+			if (compare > 0) continue;
+			long	b = image(maskB, t);
+			if (compare < 0 || Long.compareUnsigned(b, bestB) < 0) {
+				best = t;
+				bestA = a;
+				bestB = b;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the game state packed into a long, for rings of at most {@link #MAX_PACKED_CHAIRS}
+	 * chairs. Chair <code>i</code> takes bits <code>2i</code> and <code>2i + 1</code>, holding
+	 * <code>0</code> if it is empty, <code>1</code> for PLAYER_A and <code>2</code> for PLAYER_B, and
+	 * bit <code>2 * size</code> is set if PLAYER_B moves next. The moves played are not packed.
+	 *
+	 * @return The packed game state, the same as the only word of {@link #packWords()}.
+	 * @throws IllegalStateException If the ring has more than {@link #MAX_PACKED_CHAIRS} chairs.
+	 */
+	public long pack(){
+		if (size > MAX_PACKED_CHAIRS) {
+			throw new IllegalStateException("A ring of " + size + " chairs does not fit in a long");
+		}
+		return spread(mask(maskA)) | (spread(mask(maskB)) << 1) | (player == Identity.PLAYER_B ? 1L << (2 * size) : 0);
+	}
+
+	/**
+	 * Returns the game state packed into longs, as {@link #pack()} packs it into one: chair
+	 * <code>i</code> takes bits <code>2i</code> and <code>2i + 1</code> of the array, and the next
+	 * player the bit after the last chair.
+	 *
+	 * @return The packed game state, <code>(2 * size + 64) / 64</code> longs.
+	 */
+	public long[] packWords(){
+		long[]	packed = new long[(2 * size + 64) >>> 6];
+		for (int c = 0; c < size; c += 32) {
+			packed[c >>> 5] = spread(chunk(maskA, c)) | (spread(chunk(maskB, c)) << 1);
+		}
+		if (player == Identity.PLAYER_B) packed[(2 * size) >>> 6] |= 1L << (2 * size);
+		return packed;
+	}
+
+	/**
+	 * Returns the game state packed by {@link #pack()}.
+	 *
+	 * @param packed The packed game state.
+	 * @param size The number of chairs in the ring, at most {@link #MAX_PACKED_CHAIRS}.
+	 * @return The game state, with no moves to take back.
+	 * @throws IllegalArgumentException If the long is not a packed game state of the ring a game
+	 *         can reach.
+	 */
+	public static ChairGame unpack(long packed, int size){
+		if (size < 1 || size > MAX_PACKED_CHAIRS) {
+			throw new IllegalArgumentException("Invalid number of chairs: " + size);
+		}
+		return unpack(new long[] {packed}, size);
+	}
+
+	/**
+	 * Returns the game state packed by {@link #packWords()}.
+	 *
+	 * @param packed The packed game state.
+	 * @param size The number of chairs in the ring.
+	 * @return The game state, with no moves to take back.
+	 * @throws IllegalArgumentException If the longs are not a packed game state of the ring a game
+	 *         can reach.
+	 */
+	public static ChairGame unpack(long[] packed, int size){
+		ChairGame	game = new ChairGame(size);
+		if (packed.length != (2 * size + 64) >>> 6) {
+			throw new IllegalArgumentException("Invalid packed game state of " + size + " chairs");
+		}
+		for (int c = 0; c < size; c += 32) {
+			// the chairs of the word, leaving out the bit of the next player
+			long	word = packed[c >>> 5] & (-1L >>> (64 - 2 * Math.min(32, size - c)));
+			for (long a = compact(word); a != 0; a &= a - 1) {
+				game.set(c + Long.numberOfTrailingZeros(a), (byte) Identity.PLAYER_A.value());
+			}
+			for (long b = compact(word >>> 1); b != 0; b &= b - 1) {
+				game.set(c + Long.numberOfTrailingZeros(b), (byte) Identity.PLAYER_B.value());
+			}
+		}
+		if (((packed[(2 * size) >>> 6] >>> (2 * size)) & 1) != 0) game.player = Identity.PLAYER_B;
+		// both values on a chair, or bits beyond the ring, do not pack back the same
+		if (!Arrays.equals(game.packWords(), packed)) {
+			throw new IllegalArgumentException("Invalid packed game state of " + size + " chairs");
+		}
+		if (game.player != reachedNext(game)) {
+			throw new IllegalArgumentException(game.player + " does not move next in a game reaching the figures");
+		}
+		return game;
+	}
+
+	/**
+	 * Returns 32 chairs of a padded bitset, fewer at the end of the ring.
+	 *
+	 * @param bits The padded bitset.
+	 * @param c The index of the first chair.
+	 * @return Mask with bit <code>i</code> set for chair <code>c + i</code>.
+	 */
+	private long chunk(long[] bits, int c){
+		int	p = c + PAD;
+		long	chunk = bits[p >>> 6] >>> p;
+		if ((p & 63) > 32 && (p >>> 6) + 1 < bits.length) chunk |= bits[(p >>> 6) + 1] << (64 - (p & 63));
+		return chunk & ((1L << Math.min(32, size - c)) - 1);
+	}
+
+	/**
+	 * Moves bit <code>i</code> of the lower 32 bits to bit <code>2i</code>.
+	 */
+	private static long spread(long x){
+		x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x << 2)) & 0x3333333333333333L;
+		return (x | (x << 1)) & 0x5555555555555555L;
+	}
+
+	/**
+	 * Moves bit <code>2i</code> to bit <code>i</code>, the inverse of {@link #spread(long)}.
+	 */
+	private static long compact(long x){
+		x &= 0x5555555555555555L;
+		x = (x | (x >>> 1)) & 0x3333333333333333L;
+		x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+		return (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+	}
+
+	/**
+	 * Returns the index of the game state among those of its ring, for rings of at most
+	 * {@link #MAX_INDEXED_CHAIRS} chairs: the chairs read as the digits of a base 3 number, chair 0
+	 * being the lowest digit, <code>0</code> for an empty chair, <code>1</code> for PLAYER_A and
+	 * <code>2</code> for PLAYER_B. Every index below <code>3<sup>size</sup></code> is a placement of
+	 * figures, so the index can address a dense table. The next player follows from the number of
+	 * figures of a game state reached by play.
+	 *
+	 * @return The index of the game state.
+	 * @throws IllegalStateException If the ring has more than {@link #MAX_INDEXED_CHAIRS} chairs.
+	 */
+	public long getIndex(){
+		return getIndex(0);
+	}
+
+	/**
+	 * Returns the index of a symmetric image of the game state, see {@link #getIndex()}.
+	 *
+	 * @param t The index of the symmetric image, see {@link #transform(int, int)}.
+	 * @return The index of the image.
+	 * @throws IllegalStateException If the ring has more than {@link #MAX_INDEXED_CHAIRS} chairs.
+	 */
+	public long getIndex(int t){
+		if (size > MAX_INDEXED_CHAIRS) {
+			throw new IllegalStateException("A ring of " + size + " chairs has no index");
+		}
+		long	a = mask(maskA), b = mask(maskB);
+		if (t != 0) {
+			a = image(a, t);
+			b = image(b, t);
+		}
+		long	index = 0;
+		for (; a != 0; a &= a - 1) {
+			index += POW3[Long.numberOfTrailingZeros(a)];
+		}
+		for (; b != 0; b &= b - 1) {
+			index += 2 * POW3[Long.numberOfTrailingZeros(b)];
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the game state of an index, see {@link #getIndex()}.
+	 *
+	 * @param index The index of the game state.
+	 * @param size The number of chairs in the ring, at most {@link #MAX_INDEXED_CHAIRS}.
+	 * @return The game state, with no moves to take back.
+	 * @throws IllegalArgumentException If no game reaches the placement of the figures.
+	 */
+	public static ChairGame fromIndex(long index, int size){
+		if (size < 1 || size > MAX_INDEXED_CHAIRS || index < 0 || index >= POW3[size]) {
+			throw new IllegalArgumentException("Invalid index " + index + " of " + size + " chairs");
+		}
+		ChairGame	game = new ChairGame(size);
+		for (int i = 0; index != 0; i++, index /= 3) {
+			int	digit = (int) (index % 3);
+			if (digit == 1) {
+				game.set(i, (byte) Identity.PLAYER_A.value());
+			} else if (digit == 2) {
+				game.set(i, (byte) Identity.PLAYER_B.value());
+			}
+		}
+		game.player = reachedNext(game);
+		return game;
+	}
+
+	/**
+	 * Returns the player moving next in the games reaching the figures of a game state, as
+	 * decoded by {@link #unpack(long[], int)} and {@link #fromIndex(long, int)}.
+	 *
+	 * @param game The game state.
+	 * @return PLAYER_A if both players have as many figures, PLAYER_B if PLAYER_A has one more.
+	 * @throws IllegalArgumentException If no game reaches the figures: PLAYER_A has neither as many
+	 *         figures as PLAYER_B nor one more, or figures of both players sit next to each other.
+	 */
+	private static Identity reachedNext(ChairGame game){
+		int	countA = 0, countB = 0;
+		for (int i = 0; i < game.size; i++) {
+			int	value = game.get(i);
+			if (value == Identity.PLAYER_A.value()) {
+				countA++;
+				if (game.getRight(i) == Identity.PLAYER_B.value() || game.getLeft(i) == Identity.PLAYER_B.value()) {
+					throw new IllegalArgumentException("No game sits a boy next to a girl on chair " + (i + 1));
+				}
+			} else if (value == Identity.PLAYER_B.value()) {
+				countB++;
+			}
+		}
+		if (countA != countB && countA != countB + 1) {
+			throw new IllegalArgumentException("No game reaches " + countA + " and " + countB + " figures");
+		}
+		return countA == countB ? Identity.PLAYER_A : Identity.PLAYER_B;
+	}
+
+	/**
+	 * Maps a mask to a symmetric image of the ring.
+	 *
+	 * @param mask The mask of chairs.
+	 * @param t The index of the symmetric image, see {@link #transform(int, int)}.
+	 * @return The mask of the chairs in the image.
+	 */
+	long image(long mask, int t){
+		if (t >= size) {
+			// chair i goes to size - 1 - i, then the ring is rotated by t - size + 1
+			mask = Long.reverse(mask) >>> (MAX_CHAIRS - size);
+			t = t - size + 1;
+			if (t == size) return mask;
+		}
+		return ((mask << t) | (mask >>> (size - t))) & full;
+	}
+
+	/**
+	 * Maps a chair to its place in a symmetric image of the ring.
+	 *
+	 * @param i The index of the chair.
+	 * @param t The index of the symmetric image.
+	 * @return The index of the chair in the image.
+	 */
+	public int transform(int i, int t){
+		return t < size ? (i + t) % size : (t - size - i + size) % size;
+	}
+
+	/**
+	 * Maps a chair of a symmetric image of the ring back to the ring.
+	 *
+	 * @param i The index of the chair in the image.
+	 * @param t The index of the symmetric image.
+	 * @return The index of the chair.
+	 */
+	public int inverseTransform(int i, int t){
+		return t < size ? (i - t + size) % size : (t - size - i + size) % size;
+	}
+
+	/**
+	 * Puts the actual player's sign on a chair. Only the moves the figure takes away are changed:
+	 * the chair itself, and the chairs next to it for the opponent.
+	 * 
+	 * @param i The index of the chair, which the actual player has to be able to sit on.
 	 */
 	public void apply(int i) {
-		set(i,(byte)player.value());
+		boolean	a = player == Identity.PLAYER_A;
+		rooms[2 * historySize] = roomA;
+		rooms[2 * historySize + 1] = roomB;
+		if (size < 5) addRoom(i, -1);
+		toggle(i, player.value());
+		flip(a ? maskA : maskB, i);
+		if (size < 5) {
+			addRoom(i, 1);
+		} else {
+			addRoomOfMove(i);
+		}
+		MoveSet	opponent = a ? movesB : movesA;
+		int	left = i == 0 ? size - 1 : i - 1, right = i == size - 1 ? 0 : i + 1;
+		int	cleared = movesA.remove(i) | movesB.remove(i) << 1
+				| opponent.remove(left) << 2 | opponent.remove(right) << 3;
+		history[historySize] = i;
+		taken[historySize++] = (byte) cleared;
+		player = player.opponent();
+	}
+
+	/**
+	 * Takes back the last move applied, giving back the moves it took away. Moves made by
+	 * {@link #set(int, byte)} are not recorded, and must not be made between a move and its undo.
+	 */
+	public void undo() {
+		if (historySize == 0) throw new IllegalStateException("No move to undo");
+		int	i = history[--historySize], cleared = taken[historySize];
 		player = player.opponent();
+		boolean	a = player == Identity.PLAYER_A;
+		toggle(i, player.value());
+		flip(a ? maskA : maskB, i);
+		MoveSet	opponent = a ? movesB : movesA;
+		if ((cleared & 8) != 0) opponent.add(i == size - 1 ? 0 : i + 1);
+		if ((cleared & 4) != 0) opponent.add(i == 0 ? size - 1 : i - 1);
+		if ((cleared & 2) != 0) movesB.add(i);
+		if ((cleared & 1) != 0) movesA.add(i);
+		roomA = rooms[2 * historySize];
+		roomB = rooms[2 * historySize + 1];
+	}
 
+	/**
+	 * Switches a chair and its copies in the padding in a mask.
+	 */
+	private void flip(long[] mask, int i){
+		int	q = i + PAD;
+		while (q >= size) q -= size;
+		for (; q < size + 2 * PAD; q += size) {
+			mask[q >>> 6] ^= 1L << q;
+		}
 	}
 
 	/**
@@ -170,18 +950,7 @@ public class ChairGame implements Position {
 	 * @return <code>true</code> if the actual player can put their sign on the chair <code>false</code> otherwise.
 	 */
 	public boolean isApplicable(int i) {
-
-		if ((i<0) || (i>=NUMBER_OF_CHAIRS) || (get(i)!=0)) {
-			return false;
-		} 
-		if (i == 0) {
-			return get(i+1)!=player.opponent().value() && get(NUMBER_OF_CHAIRS-1)!=player.opponent().value();
-		} 
-		if (i == NUMBER_OF_CHAIRS-1) {
-			return get(i-1)!=player.opponent().value() && get(0)!=player.opponent().value();
-		}
-		return get(i+1)!=player.opponent().value() && get(i-1)!=player.opponent().value();
-
+		return (i >= 0) && (i < size) && moveSet(player).contains(i);
 	}
 
 
@@ -200,11 +969,11 @@ public class ChairGame implements Position {
 	 * @return ArrayList of applicable operators.
 	 */
 	public ArrayList<Sit> operators() {
-		ArrayList<Sit> operators = new ArrayList<Sit>();
-		for (int op = 0; op < NUMBER_OF_CHAIRS; ++op) {
-			if (isApplicable(op)) {
-				operators.add(new Sit(op));
-			}
+		int[] chairs = new int[getMoveCount()];
+		int count = moves(chairs);
+		ArrayList<Sit> operators = new ArrayList<Sit>(count);
+		for (int k = 0; k < count; k++) {
+			operators.add(Sit.of(chairs[k]));
 		}
 		return operators;
 
@@ -215,10 +984,20 @@ public class ChairGame implements Position {
 		if (o == this) return true;
 		if (o == null || ! getClass().equals(o.getClass())) return false;
 		ChairGame that = (ChairGame) o;
-		return  that.player == player && Arrays.equals(that.chairs, chairs);
+		return  that.player == player && that.size == size && Arrays.equals(that.maskA, maskA) && Arrays.equals(that.maskB, maskB);
 
 	}
 	
+	/**
+	 * The Zobrist hash of the figures and the next player, so equal game states hash the same
+	 * whatever moves reached them.
+	 */
+	@Override
+	public int hashCode() {
+		long	h = getHash() ^ (size * 0x9E3779B97F4A7C15L);
+		return (int) (h ^ (h >>> 32));
+	}
+	
 	/**
 	 * Overridden toString method: -1 means G(irl), 1 means B(oy).
 	 */
@@ -226,10 +1005,10 @@ public class ChairGame implements Position {
 	public String toString() {
 		final String newLine = System.getProperties().getProperty("line.separator");
 		StringBuilder	sb = new StringBuilder();
-		for( int i=0 ; i<NUMBER_OF_CHAIRS ; i++ ){
+		for( int i=0 ; i<size ; i++ ){
 			sb.append(i+1);
 			sb.append(":");    
-			switch (this.chairs[i]){
+			switch (get(i)){
 			case -1: sb.append("G");break;
 			case  1: sb.append("B");break;
 			default : sb.append("_");
@@ -41,7 +41,7 @@ public class ConsolePlayer extends PlayerImp {
 			Sit	op;
 
 			int i=(Integer.parseInt(line));
-			if ((i>=1) && (i<=ChairGame.NUMBER_OF_CHAIRS)){	
+			if ((i>=1) && (i<=((ChairGame) position).size())){	
 				op = new Sit(i-1);
 			}
 			else throw new GameException("Invalid move");
@@ -2,6 +2,7 @@ package chairgame;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
 /**
  * Example of a two-person zero-sum game, which can be played through console input.
  * The machine player uses minimax algorithm to decide which move to make. 
@@ -22,10 +23,19 @@ public class GamePlay {
 	 * Method to print out the rules of the game. 
 	 */
 	public static void writeRules(){
+		writeRules( ChairGame.NUMBER_OF_CHAIRS );
+	}
+
+	/**
+	 * Method to print out the rules of the game for a given number of chairs.
+	 *
+	 * @param chairs The number of chairs in the ring.
+	 */
+	public static void writeRules( int chairs ){
 		String newLine = System.getProperties().getProperty( "line.separator" );
 		StringBuffer sb = new StringBuffer();
 		sb.append( "Rules: ").append( newLine );
-		sb.append( "There are 14 chairs positioned in a circle, and 7 boys and 7 girls. One player" + newLine );
+		sb.append( "There are " + chairs + " chairs positioned in a circle, and " + chairs / 2 + " boys and " + chairs / 2 + " girls. One player" + newLine );
 		sb.append( "sits the boys, the other sits the girls on the chairs. The players"+ newLine );
 		sb.append( "sit the boys and girls in turns, however there should not be sit a boy and a girl"+ newLine );
 		sb.append( "right next to each other. The player who sits the last person wins the game."+ newLine );
@@ -36,12 +46,13 @@ public class GamePlay {
 	public static void main( String[] args ) {
 		
 		/**
-		 * Start state of the game.
+		 * Start state of the game, the number of chairs can be given as the first argument, an
+		 * opening book file for the computer as the second.
 		 */
-		ChairGame state = new ChairGame();
+		ChairGame state = args.length > 0 ? new ChairGame( Integer.parseInt( args[0] ) ) : new ChairGame();
 
 
-		GamePlay.writeRules();
+		GamePlay.writeRules( state.size() );
 		try {			
 			String name = "Player", temp;
 			BufferedReader	in = new BufferedReader( new InputStreamReader( System.in ) );
@@ -52,50 +63,60 @@ public class GamePlay {
 			}
 			
 			
-			//playerB is the minimax player, playerA is the human player. 
-			Player	playerB = new MinimaxPlayer( Identity.PLAYER_B,5, new ChairEvaluationFunction3() );
+			//playerB is the alpha-beta player thinking at most a second per move and pondering while the human is, playerA is the human player. 
+			AlphaBetaPlayer	search = new AlphaBetaPlayer( Identity.PLAYER_B, Math.min( state.size(), ChairGame.NUMBER_OF_CHAIRS ), new ChairEvaluationFunction3() );
+			search.setTimeLimit( 1000 );
+			PonderingPlayer	pondering = new PonderingPlayer( Identity.PLAYER_B, search );
+			Player	playerB = args.length > 1 ? new BookPlayer( Identity.PLAYER_B, OpeningBook.open( Paths.get( args[1] ) ), pondering ) : pondering;
 			Player	playerA = new ConsolePlayer( name, Identity.PLAYER_A );
 			
-			//print the chairs out
-			System.out.println( state );
-
-			while ( ! state .isTerminal() ) {
-
-				Player	player = null;
-				switch ( state.getNext() ) {
-				case PLAYER_A:	player = playerA;	break;
-				case PLAYER_B:	player = playerB;	break;
-				default:
-					break;
-				}
+			try {
+				//print the chairs out
+				System.out.println( state );
 
-				Operator operator = null;
+				while ( ! state .isTerminal() ) {
 
-				do {
-					try {
-						System.out.printf("%s's turn: ", player.getName());
-						operator = player.getOperator(state);
+					Player	player = null;
+					switch ( state.getNext() ) {
+					case PLAYER_A:	player = playerA;	break;
+					case PLAYER_B:	player = playerB;	break;
+					default:
 						break;
-					} catch( GameException e ) {
-						if ( ! player.isInteractive() ){ throw e;}
-						else System.out.println( e.getMessage() );
 					}
-				} while ( true );
 
-				if ( operator == null ){break;}
-				state.apply(operator);
-				String side = player.getIdentity().value() == -1 ? "Girl" : "Boy";
+					Operator operator = null;
 
-				System.out.printf("%s has sat ("+side+") to place "+ operator +" %n", player.getName());
-				System.out.printf("%n%s%n", state);
-			}
-			if (state.isTerminal()) {
-				switch(state.getWinner()) {
-				case PLAYER_A:	System.out.printf("%s won!%n", playerA.getName());	break;
-				case PLAYER_B:	System.out.printf("%s won!%n", playerB.getName());	break;
-				case NONE:	System.out.println("Draw???");	break;
+					do {
+						try {
+							System.out.printf("%s's turn: ", player.getName());
+							operator = player.getOperator(state);
+							break;
+						} catch( GameException e ) {
+							if ( ! player.isInteractive() ){ throw e;}
+							else System.out.println( e.getMessage() );
+						}
+					} while ( true );
+
+					if ( operator == null ){break;}
+					state.apply(operator);
+					String side = player.getIdentity().value() == -1 ? "Girl" : "Boy";
+
+					System.out.printf("%s has sat ("+side+") to place "+ operator +" %n", player.getName());
+					System.out.printf("%n%s%n", state);
+				}
+				if (state.isTerminal()) {
+					switch(state.getWinner()) {
+					case PLAYER_A:	System.out.printf("%s won!%n", playerA.getName());	break;
+					case PLAYER_B:	System.out.printf("%s won!%n", playerB.getName());	break;
+					case NONE:	System.out.println("Draw???");	break;
+					}
 				}
+			} finally {
+				// a pondering search must not outlive the game, also when the game ends with an error
+				pondering.shutdown();
 			}
+			System.out.printf("%s anticipated %d of your %d moves, answering %d ms sooner.%n", playerB.getName(),
+					pondering.getPonderHits(), pondering.getPonderHits() + pondering.getPonderMisses(), pondering.getSavedTime() / 1000000);
 		} catch(GameException e) {
 			System.out.println("Error!");
 			e.printStackTrace();
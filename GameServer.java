@@ -0,0 +1,448 @@
+package chairgame;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HTTP server hosting games of humans against the computer, many at the same time.
+ *
+ * A game is a session holding nothing but its game state, so the number of games is only bounded
+ * by memory. No thread waits for a game: the requests are parsed on a few threads, and the
+ * computer's replies are searched on a fixed pool of threads, one alpha-beta player each, which
+ * answer the request when the search ends. Each move of the computer has a deadline counted from
+ * the arrival of the human's move, so time spent waiting for a searching thread is taken from the
+ * search, and a move is always answered in time. When the queue of the pool is full, moves are
+ * refused instead of waiting.
+ *
+ * The protocol is plain text. The human sits the boys and moves first, chairs are numbered from
+ * one as on the console.
+ * <ul>
+ * <li><code>POST /games[?time=ms]</code> starts a game, with a shorter time per move if given, and
+ * answers <code>game &lt;id&gt; &lt;chairs&gt;</code>.</li>
+ * <li><code>POST /games/&lt;id&gt;?chair=&lt;n&gt;</code> sits a boy on a chair and answers
+ * <code>&lt;chair&gt; &lt;status&gt;</code>: the chair the computer sat on, or <code>-</code>, and
+ * <code>play</code>, <code>won</code> or <code>lost</code> for the human.</li>
+ * <li><code>GET /games/&lt;id&gt;</code> answers the ring as on the console.</li>
+ * <li><code>DELETE /games/&lt;id&gt;</code> ends a game.</li>
+ * </ul>
+ * Games not played for a while are ended by the server.
+ */
+public class GameServer {
+
+	/**
+	 * The path of the games.
+	 */
+	private static final String	PATH = "/games";
+
+	static {
+		// the headers and the body of an answer are written apart, and Nagle's algorithm would hold
+		// the body back until the headers are acknowledged, which the client delays
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	/**
+	 * The number of chairs of the games.
+	 */
+	private final int	chairs;
+
+	/**
+	 * The longest time of a move of the computer in milliseconds.
+	 */
+	private final long	moveTime;
+
+	/**
+	 * The time a game may be left unplayed in milliseconds.
+	 */
+	private final long	idleTime;
+
+	/**
+	 * The largest number of games.
+	 */
+	private final int	maxGames;
+
+	/**
+	 * The games, by their id.
+	 */
+	private final Map<Long, Session>	sessions = new ConcurrentHashMap<Long, Session>();
+
+	/**
+	 * The number of games, taken before a game is added so that there are never more than
+	 * {@link #maxGames}.
+	 */
+	private final AtomicInteger	games = new AtomicInteger();
+
+	/**
+	 * The id of the last game started.
+	 */
+	private final AtomicLong	lastId = new AtomicLong();
+
+	/**
+	 * The threads parsing and answering the requests.
+	 */
+	private final ExecutorService	requestPool;
+
+	/**
+	 * The threads searching the moves of the computer.
+	 */
+	private final ThreadPoolExecutor	searchPool;
+
+	/**
+	 * The players searching the moves, one for each thread of the search pool, which keep their
+	 * transposition table from game to game.
+	 */
+	private final ThreadLocal<AlphaBetaPlayer>	players;
+
+	/**
+	 * The thread ending the games not played for a while.
+	 */
+	private final ScheduledExecutorService	sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread	thread = new Thread(runnable, "sweeper");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * The server, or <code>null</code> if not started.
+	 */
+	private HttpServer	server;
+
+	/**
+	 * Constructor to create a server.
+	 *
+	 * @param chairs The number of chairs of the games.
+	 * @param threads The number of threads searching the moves of the computer.
+	 * @param queue The number of moves which can wait for a searching thread.
+	 * @param maxDepth The maximum depth of the search.
+	 * @param moveTime The longest time of a move of the computer in milliseconds.
+	 * @param maxGames The largest number of games.
+	 * @param idleTime The time a game may be left unplayed in milliseconds.
+	 */
+	public GameServer(int chairs, int threads, int queue, final int maxDepth, long moveTime, int maxGames, long idleTime) {
+		this.chairs = chairs;
+		this.moveTime = moveTime;
+		this.maxGames = maxGames;
+		this.idleTime = idleTime;
+		this.requestPool = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+		this.searchPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queue));
+		this.players = ThreadLocal.withInitial(
+				() -> new AlphaBetaPlayer(Identity.PLAYER_B, maxDepth, new ChairEvaluationFunction3()));
+	}
+
+	/**
+	 * Starts serving.
+	 *
+	 * @param port The port to listen on, or <code>0</code> for any free port.
+	 * @return The port listened on.
+	 * @throws IOException If the port can not be listened on.
+	 */
+	public int start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(port), 4096);
+		server.createContext(PATH, this::handle);
+		server.setExecutor(requestPool);
+		server.start();
+		long	period = Math.max(1000, idleTime / 4);
+		sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops serving, the games are lost.
+	 */
+	public void stop() {
+		if (server != null) server.stop(0);
+		sweeper.shutdown();
+		searchPool.shutdownNow();
+		requestPool.shutdown();
+		for (Session session : sessions.values()) {
+			end(session);
+		}
+	}
+
+	/**
+	 * Returns the number of games being played.
+	 *
+	 * @return The number of games.
+	 */
+	public int getGames() {
+		return games.get();
+	}
+
+	/**
+	 * Ends the games not played for a while.
+	 */
+	private void sweep() {
+		long	oldest = System.nanoTime() - idleTime * 1000000L;
+		for (Session session : sessions.values()) {
+			if (!session.busy && session.touched - oldest < 0) end(session);
+		}
+	}
+
+	/**
+	 * Ends a game, unless it has already ended.
+	 *
+	 * @param session The game.
+	 */
+	private void end(Session session) {
+		if (sessions.remove(session.id, session)) games.decrementAndGet();
+	}
+
+	/**
+	 * Answers a request.
+	 *
+	 * @param exchange The request.
+	 */
+	private void handle(HttpExchange exchange) {
+		try {
+			URI	uri = exchange.getRequestURI();
+			String	path = uri.getPath(), method = exchange.getRequestMethod();
+			if (path.equals(PATH) || path.equals(PATH + "/")) {
+				if (method.equals("POST")) {
+					create(exchange, parameter(uri, "time", moveTime));
+				} else {
+					respond(exchange, 405, "method not allowed");
+				}
+				return;
+			}
+			Session	session = null;
+			try {
+				session = sessions.get(Long.parseLong(path.substring(PATH.length() + 1)));
+			} catch (NumberFormatException e) {
+			}
+			if (session == null) {
+				respond(exchange, 404, "no such game");
+			} else if (method.equals("POST")) {
+				move(exchange, session, (int) parameter(uri, "chair", 0) - 1);
+			} else if (method.equals("GET")) {
+				String	ring;
+				synchronized (session) {
+					ring = session.game.toString();
+				}
+				respond(exchange, 200, ring);
+			} else if (method.equals("DELETE")) {
+				end(session);
+				respond(exchange, 200, "ended");
+			} else {
+				respond(exchange, 405, "method not allowed");
+			}
+		} catch (RuntimeException e) {
+			respond(exchange, 400, String.valueOf(e.getMessage()));
+		}
+	}
+
+	/**
+	 * Starts a game.
+	 *
+	 * @param exchange The request.
+	 * @param time The longest time of a move of the computer in milliseconds.
+	 */
+	private void create(HttpExchange exchange, long time) {
+		if (games.incrementAndGet() > maxGames) {
+			games.decrementAndGet();
+			respond(exchange, 503, "too many games");
+			return;
+		}
+		Session	session = new Session(lastId.incrementAndGet(), new ChairGame(chairs), Math.max(1, Math.min(time, moveTime)));
+		sessions.put(session.id, session);
+		respond(exchange, 201, "game " + session.id + " " + chairs);
+	}
+
+	/**
+	 * Plays the human's move and answers the computer's reply when it is searched.
+	 *
+	 * @param exchange The request.
+	 * @param session The game.
+	 * @param chair The index of the chair the human sits a boy on.
+	 */
+	private void move(final HttpExchange exchange, final Session session, int chair) {
+		final long	deadline = System.nanoTime() + session.moveTime * 1000000L;
+		final ChairGame	game;
+		synchronized (session) {
+			session.touched = System.nanoTime();
+			if (session.busy) {
+				respond(exchange, 409, "the computer is moving");
+				return;
+			}
+			if (session.game.isTerminal()) {
+				respond(exchange, 409, "the game is over");
+				return;
+			}
+			if (chair < 0 || chair >= chairs || !session.game.isApplicable(chair)) {
+				respond(exchange, 400, "invalid move");
+				return;
+			}
+			session.game.apply(chair);
+			if (session.game.isTerminal()) {
+				respond(exchange, 200, "- " + status(session.game));
+				return;
+			}
+			session.busy = true;
+			game = session.game.clone();
+		}
+		CompletableFuture<Operator>	reply = AsyncSearch.submit(searchPool,
+				request -> players.get().search(game, Math.max(1, (deadline - System.nanoTime()) / 1000000), request));
+		reply.whenComplete((operator, failure) -> {
+			String	answer = null;
+			synchronized (session) {
+				session.busy = false;
+				session.touched = System.nanoTime();
+				if (failure != null) {
+					// the human's move is taken back, so that it can be sent again
+					session.game.undo();
+				} else {
+					session.game.apply(operator);
+					answer = (((Sit) operator).getI() + 1) + " " + status(session.game);
+				}
+			}
+			if (failure == null) {
+				respond(exchange, 200, answer);
+			} else if (failure instanceof RejectedExecutionException) {
+				respond(exchange, 503, "too many moves");
+			} else {
+				respond(exchange, 500, String.valueOf(failure));
+			}
+		});
+	}
+
+	/**
+	 * Returns the state of a game for the human.
+	 */
+	private static String status(ChairGame game) {
+		if (!game.isTerminal()) return "play";
+		return game.getWinner() == Identity.PLAYER_A ? "won" : "lost";
+	}
+
+	/**
+	 * Returns a number given in the query of a request.
+	 *
+	 * @param uri The address of the request.
+	 * @param name The name of the parameter.
+	 * @param value The value if the parameter is not given.
+	 * @return The value of the parameter.
+	 * @throws NumberFormatException If the value is not a number.
+	 */
+	private static long parameter(URI uri, String name, long value) {
+		String	query = uri.getQuery();
+		if (query == null) return value;
+		for (String pair : query.split("&")) {
+			if (pair.startsWith(name + "=")) return Long.parseLong(pair.substring(name.length() + 1));
+		}
+		return value;
+	}
+
+	/**
+	 * Sends the answer of a request.
+	 *
+	 * @param exchange The request.
+	 * @param status The status code.
+	 * @param body The text of the answer.
+	 */
+	private static void respond(HttpExchange exchange, int status, String body) {
+		byte[]	bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+		try {
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+			exchange.sendResponseHeaders(status, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		} catch (IOException e) {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * A game being played.
+	 */
+	private static final class Session {
+
+		/**
+		 * The id of the game.
+		 */
+		final long	id;
+
+		/**
+		 * The game state.
+		 */
+		final ChairGame	game;
+
+		/**
+		 * The longest time of a move of the computer in milliseconds.
+		 */
+		final long	moveTime;
+
+		/**
+		 * Set while the computer's move is searched.
+		 */
+		volatile boolean	busy;
+
+		/**
+		 * The value of {@link System#nanoTime()} the game was last played at.
+		 */
+		volatile long	touched = System.nanoTime();
+
+		Session(long id, ChairGame game, long moveTime) {
+			this.id = id;
+			this.game = game;
+			this.moveTime = moveTime;
+		}
+	}
+
+	/**
+	 * Starts a server.
+	 *
+	 * @param args The options of the server.
+	 */
+	public static void main(String[] args) throws IOException {
+		int	port = 8080, chairs = ChairGame.NUMBER_OF_CHAIRS, threads = Runtime.getRuntime().availableProcessors();
+		int	queue = 4096, depth = ChairGame.NUMBER_OF_CHAIRS, games = 100000;
+		long	time = 100, idle = 600000;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-port")) {
+				port = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-chairs")) {
+				chairs = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-queue")) {
+				queue = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-depth")) {
+				depth = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-time")) {
+				time = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-games")) {
+				games = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-idle")) {
+				idle = Long.parseLong(args[++i]) * 1000;
+			} else {
+				System.out.println("Usage: GameServer [-port n] [-chairs n] [-threads n] [-queue n] [-depth n] "
+						+ "[-time ms] [-games n] [-idle s]");
+				return;
+			}
+		}
+		GameServer	server = new GameServer(chairs, threads, queue, depth, time, games, idle);
+		port = server.start(port);
+		System.out.printf("Serving games of %d chairs on port %d, %d searching threads, %d ms per move%n", chairs, port,
+				threads, time);
+	}
+
+}
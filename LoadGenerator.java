@@ -0,0 +1,338 @@
+package chairgame;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays many games against a {@link GameServer} at the same time, with random moves, and reports
+ * the latency of the computer's moves and the number of games played per second.
+ *
+ * The games are played by a number of clients, each playing one game after another until the
+ * games run out. The clients do not hold a thread while waiting for the server, so thousands of
+ * them can play at once.
+ */
+public class LoadGenerator {
+
+	/**
+	 * The client sending the requests.
+	 */
+	private final HttpClient	http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	/**
+	 * The address of the games of the server.
+	 */
+	private final URI	games;
+
+	/**
+	 * The number of games to play.
+	 */
+	private final int	sessions;
+
+	/**
+	 * The number of games played at the same time.
+	 */
+	private final int	concurrency;
+
+	/**
+	 * The time the clients think before a move in milliseconds.
+	 */
+	private final long	thinkTime;
+
+	/**
+	 * Runs the moves of the clients after their time to think.
+	 */
+	private final Executor	think;
+
+	/**
+	 * The seed of the random moves.
+	 */
+	private final long	seed;
+
+	/**
+	 * The number of games started.
+	 */
+	private final AtomicInteger	started = new AtomicInteger();
+
+	/**
+	 * The number of games played to the end, and of those failed.
+	 */
+	private final LongAdder	finished = new LongAdder(), errors = new LongAdder();
+
+	/**
+	 * The latencies of the moves in nanoseconds, sorted after the run.
+	 */
+	private long[]	latencies = new long[0];
+
+	/**
+	 * The time of the run in nanoseconds.
+	 */
+	private long	time;
+
+	/**
+	 * Constructor to create a load generator.
+	 *
+	 * @param games The address of the games of the server.
+	 * @param sessions The number of games to play.
+	 * @param concurrency The number of games played at the same time.
+	 * @param thinkTime The time the clients think before a move in milliseconds.
+	 * @param seed The seed of the random moves.
+	 */
+	public LoadGenerator(URI games, int sessions, int concurrency, long thinkTime, long seed) {
+		this.games = games;
+		this.sessions = sessions;
+		this.concurrency = concurrency;
+		this.thinkTime = thinkTime;
+		this.think = thinkTime > 0 ? CompletableFuture.delayedExecutor(thinkTime, TimeUnit.MILLISECONDS) : Runnable::run;
+		this.seed = seed;
+	}
+
+	/**
+	 * Plays the games.
+	 */
+	public void run() {
+		long	start = System.nanoTime();
+		Client[]	clients = new Client[concurrency];
+		CompletableFuture<?>[]	done = new CompletableFuture<?>[concurrency];
+		SplittableRandom	random = new SplittableRandom(seed);
+		for (int c = 0; c < concurrency; c++) {
+			clients[c] = new Client(random.split());
+			done[c] = clients[c].done;
+			// the clients start spread over the time to think, so that their moves do not come in waves
+			Client	client = clients[c];
+			if (thinkTime > 0) {
+				CompletableFuture.delayedExecutor(random.nextLong(thinkTime), TimeUnit.MILLISECONDS).execute(client::next);
+			} else {
+				client.next();
+			}
+		}
+		CompletableFuture.allOf(done).join();
+		time = System.nanoTime() - start;
+		int	count = 0;
+		for (Client client : clients) {
+			count += client.count;
+		}
+		latencies = new long[count];
+		count = 0;
+		for (Client client : clients) {
+			System.arraycopy(client.latencies, 0, latencies, count, client.count);
+			count += client.count;
+		}
+		Arrays.sort(latencies);
+	}
+
+	/**
+	 * Returns a percentile of the latencies of the computer's moves.
+	 *
+	 * @param p The percentile, between <code>0</code> and <code>100</code>.
+	 * @return The latency in milliseconds, or <code>0</code> if no move was played.
+	 */
+	public double getLatency(double p) {
+		if (latencies.length == 0) return 0;
+		int	k = (int) Math.ceil(p / 100 * latencies.length) - 1;
+		return latencies[Math.max(0, Math.min(latencies.length - 1, k))] / 1e6;
+	}
+
+	/**
+	 * Prints the results of the run.
+	 *
+	 * @param out The stream to print to.
+	 */
+	public void report(PrintStream out) {
+		double	seconds = time / 1e9;
+		out.printf("%d games (%d failed) and %d moves in %.1f s, %d at a time: %.1f games/s, %.0f moves/s%n",
+				finished.sum(), errors.sum(), latencies.length, seconds, concurrency, finished.sum() / seconds,
+				latencies.length / seconds);
+		out.printf("Move latency: p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n", getLatency(50), getLatency(90),
+				getLatency(99), getLatency(100));
+	}
+
+	/**
+	 * Sends a request.
+	 *
+	 * @param method The method of the request.
+	 * @param uri The address of the request.
+	 * @return The text of the answer, failing if the request is not successful.
+	 */
+	private CompletableFuture<String> send(String method, URI uri) {
+		HttpRequest	request = HttpRequest.newBuilder(uri).method(method, HttpRequest.BodyPublishers.noBody()).build();
+		return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+			if (response.statusCode() >= 300) {
+				throw new IllegalStateException(response.statusCode() + " " + response.body().trim());
+			}
+			return response.body().trim();
+		});
+	}
+
+	/**
+	 * A client playing games one after another. Each step is started by the answer to the previous
+	 * one, so at most one request of a client is waiting at a time.
+	 */
+	private final class Client {
+
+		/**
+		 * The source of the moves.
+		 */
+		private final SplittableRandom	random;
+
+		/**
+		 * Done when the client has played its games.
+		 */
+		final CompletableFuture<Void>	done = new CompletableFuture<Void>();
+
+		/**
+		 * The latencies of the moves in nanoseconds.
+		 */
+		long[]	latencies = new long[64];
+
+		/**
+		 * The number of latencies.
+		 */
+		int	count;
+
+		Client(SplittableRandom random) {
+			this.random = random;
+		}
+
+		/**
+		 * Starts the next game, or finishes if the games have run out.
+		 */
+		void next() {
+			if (started.getAndIncrement() >= sessions) {
+				done.complete(null);
+				return;
+			}
+			send("POST", games).whenComplete((answer, failure) -> {
+				String[]	words = failure == null ? answer.split(" ") : null;
+				if (words == null || words.length != 3 || !words[0].equals("game")) {
+					fail();
+					return;
+				}
+				URI	game = URI.create(games + "/" + words[1]);
+				think.execute(() -> move(game, new ChairGame(Integer.parseInt(words[2]))));
+			});
+		}
+
+		/**
+		 * Plays a random move, and the next one after the computer's reply.
+		 *
+		 * @param game The address of the game.
+		 * @param position The game state, kept up to date with the moves of both players.
+		 */
+		private void move(final URI game, final ChairGame position) {
+			int[]	chairs = new int[position.getMoveCount()];
+			final int	chair = chairs[random.nextInt(position.moves(chairs))];
+			final long	start = System.nanoTime();
+			send("POST", URI.create(game + "?chair=" + (chair + 1))).whenComplete((answer, failure) -> {
+				String[]	words = failure == null ? answer.split(" ") : null;
+				if (words == null || words.length != 2) {
+					fail(game);
+					return;
+				}
+				record(System.nanoTime() - start);
+				position.apply(chair);
+				if (!words[0].equals("-")) position.apply(Integer.parseInt(words[0]) - 1);
+				if (words[1].equals("play")) {
+					think.execute(() -> move(game, position));
+				} else {
+					finished.increment();
+					send("DELETE", game).whenComplete((ended, error) -> next());
+				}
+			});
+		}
+
+		/**
+		 * Counts a failed game and starts the next one.
+		 */
+		private void fail() {
+			errors.increment();
+			next();
+		}
+
+		/**
+		 * Counts a failed game, ends it on the server and starts the next one.
+		 *
+		 * @param game The address of the game.
+		 */
+		private void fail(URI game) {
+			errors.increment();
+			send("DELETE", game).whenComplete((ended, error) -> next());
+		}
+
+		/**
+		 * Records the latency of a move.
+		 */
+		private void record(long latency) {
+			if (count == latencies.length) latencies = Arrays.copyOf(latencies, 2 * count);
+			latencies[count++] = latency;
+		}
+	}
+
+	/**
+	 * Plays games against a server, or against one started for the run on a free port.
+	 *
+	 * @param args The options of the run.
+	 */
+	public static void main(String[] args) throws IOException {
+		String	host = "localhost";
+		int	port = 8080, sessions = 1000, concurrency = 100, warmup = 0, chairs = ChairGame.NUMBER_OF_CHAIRS;
+		int	threads = Runtime.getRuntime().availableProcessors();
+		long	think = 0, time = 100, seed = 1;
+		boolean	local = false;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-host")) {
+				host = args[++i];
+			} else if (args[i].equals("-port")) {
+				port = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-games")) {
+				sessions = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-concurrency")) {
+				concurrency = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-warmup")) {
+				warmup = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-think")) {
+				think = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else if (args[i].equals("-local")) {
+				local = true;
+			} else if (args[i].equals("-chairs")) {
+				chairs = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-time")) {
+				time = Long.parseLong(args[++i]);
+			} else {
+				System.out.println("Usage: LoadGenerator [-host name] [-port n] [-games n] [-concurrency n] [-warmup n] "
+						+ "[-think ms] [-seed n] [-local [-chairs n] [-threads n] [-time ms]]");
+				return;
+			}
+		}
+		GameServer	server = null;
+		if (local) {
+			server = new GameServer(chairs, threads, Math.max(4096, concurrency), chairs, time, Math.max(100000, concurrency),
+					600000);
+			port = server.start(0);
+		}
+		URI	games = URI.create("http://" + host + ":" + port + "/games");
+		if (warmup > 0) {
+			// games played before measuring, while the server and the client are compiled
+			new LoadGenerator(games, warmup, Math.min(warmup, concurrency), think, seed - 1).run();
+		}
+		LoadGenerator	generator = new LoadGenerator(games, sessions, concurrency, think, seed);
+		generator.run();
+		generator.report(System.out);
+		if (server != null) server.stop();
+	}
+
+}
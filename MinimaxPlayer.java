@@ -1,7 +1,12 @@
 package chairgame;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
 /**
- * AI for two-person zero-sum games. It calculates the computer's next move using minimax algorithm.
+ * AI for the chair game. It calculates the computer's next move using minimax algorithm.
  */
 public class MinimaxPlayer extends PlayerImp {
 
@@ -13,12 +18,12 @@ public class MinimaxPlayer extends PlayerImp {
 	/**
 	 * The value of the evaluation function for the best game state.
 	 */
-	private static final int	MAX_SCORE = Integer.MAX_VALUE - 1;
+	static final int	MAX_SCORE = Integer.MAX_VALUE - 1;
 
 	/**
 	 * The value of the evaluation function for the worst game state.
 	 */
-	private static final int	MIN_SCORE = Integer.MIN_VALUE + 1;
+	static final int	MIN_SCORE = Integer.MIN_VALUE + 1;
 
 	/**
 	 * Default value of the maximum depth of the game states' decision tree.
@@ -33,7 +38,52 @@ public class MinimaxPlayer extends PlayerImp {
 	/**
 	 * The evaluation function used by the algorithm.
 	 */
-	private EvaluationFunction	ef;
+	private EvaluationFunction<ChairGame>	ef;
+
+	/**
+	 * The counters of the current search.
+	 */
+	private final SearchCounters	counters = new SearchCounters();
+
+	/**
+	 * The statistics of every search.
+	 */
+	private final SearchMonitor	monitor = new SearchMonitor();
+
+	/**
+	 * The statistics of the last search, or <code>null</code>.
+	 */
+	private SearchStatistics	statistics;
+
+	/**
+	 * The score of the move returned by the last search.
+	 */
+	private int	score;
+
+	/**
+	 * The value of {@link System#nanoTime()} the current search has to stop at, or <code>0</code>.
+	 */
+	private long	deadline;
+
+	/**
+	 * The future of the move of the current search, or <code>null</code>.
+	 */
+	private Future<?>	request;
+
+	/**
+	 * The number of game states visited since the start of the search, to read the clock now and then.
+	 */
+	private int	visited;
+
+	/**
+	 * Held by the running search, so that the searches of the machine player run one at a time.
+	 */
+	private final Object	searching = new Object();
+
+	/**
+	 * The moves of the game states being searched, one array per remaining depth.
+	 */
+	private final AlphaBetaPlayer.Buffers	buffers = new AlphaBetaPlayer.Buffers();
 
 	/**
 	 * Constructor to create a machine player.
@@ -48,7 +98,7 @@ public class MinimaxPlayer extends PlayerImp {
 	 * @param identity The player we intend to calculate a move for.
 	 * @param ef The evaluation function to use.
 	 */
-	public MinimaxPlayer(Identity identity, EvaluationFunction ef) {
+	public MinimaxPlayer(Identity identity, EvaluationFunction<ChairGame> ef) {
 		this(NAME, identity, ef);
 	}
 
@@ -60,7 +110,7 @@ public class MinimaxPlayer extends PlayerImp {
 	 * @param maxDepth The maximum depth of the game states' decision tree.
 	 * @param ef The evaluation function to use.
 	 */
-	public MinimaxPlayer(Identity identity, int maxDepth, EvaluationFunction ef) {
+	public MinimaxPlayer(Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef) {
 		this(NAME, identity, maxDepth, ef);
 	}
 
@@ -71,7 +121,7 @@ public class MinimaxPlayer extends PlayerImp {
      * @param identity The player we intend to calculate a move for.
 	 * @param ef The evaluation function to use.
 	 */
-	public MinimaxPlayer(String name, Identity identity, EvaluationFunction ef) {
+	public MinimaxPlayer(String name, Identity identity, EvaluationFunction<ChairGame> ef) {
 		super(name, identity);
 		this.ef = ef;
 	}
@@ -84,7 +134,7 @@ public class MinimaxPlayer extends PlayerImp {
 	 * @param maxDepth The maximum depth of the game states' decision tree.
 	 * @param ef The evaluation function to use.
 	 */
-	public MinimaxPlayer(String name, Identity identity, int maxDepth, EvaluationFunction ef) {
+	public MinimaxPlayer(String name, Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef) {
 		super(name, identity);
 		this.maxDepth = maxDepth;
 		this.ef = ef;
@@ -120,7 +170,7 @@ public class MinimaxPlayer extends PlayerImp {
 	 *
 	 * @return the evaluation function used by the machine player.
 	 */
-	public EvaluationFunction getEvaluationFunction() {
+	public EvaluationFunction<ChairGame> getEvaluationFunction() {
 		return ef;
 	}
 
@@ -129,30 +179,146 @@ public class MinimaxPlayer extends PlayerImp {
 	 *
 	 * @param ef the evaluation function used by the machine player.
 	 */
-	public void setEvaluationFunction(EvaluationFunction ef) {
+	public void setEvaluationFunction(EvaluationFunction<ChairGame> ef) {
 		this.ef = ef;
 	}
 
+	/**
+	 * Returns what the last search did. A search queued on an executor may replace the statistics
+	 * before they are read; {@link #searchAsync} returns them with the move.
+	 *
+	 * @return The statistics of the last search, or <code>null</code> if there was none.
+	 */
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Returns the score of the move returned by the last search, from the view of the player. A
+	 * search queued on an executor may replace it before it is read; {@link #searchAsync} returns
+	 * the score with the move.
+	 *
+	 * @return The minimax value of the move, or the best value found if the search was stopped,
+	 *         <code>Integer.MIN_VALUE</code> if it found none.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the statistics of every search, which can be registered to be watched through JMX.
+	 *
+	 * @return The monitor of the machine player.
+	 */
+	public SearchMonitor getMonitor() {
+		return monitor;
+	}
+
 	/**
 	 * Calculating the move for the player for a given game state using minimax algorithm.
+	 * The search applies and takes back the moves on a single copy of the game state, and lists
+	 * them into arrays kept between searches, so it allocates nothing per game state.
 	 * 
 	 * @param position The game state the move is calculated for.
 	 * @return The move calculated by minimax algorithm.
+	 * @throws GameException If the game state is not one of the chair game, is over, or it is not the
+	 *         player's turn.
 	 */
 	public Operator getOperator(Position position) throws GameException {
-		if (position.isTerminal() || position.getNext() != identity || maxDepth < 1) {
+		return search(position, 0, null);
+	}
+
+	/**
+	 * Calculates the move on an executor. At the time limit the search stops with the best of the
+	 * moves searched by then, and it stops soon after the future is cancelled.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param executor The executor to search on.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search every move.
+	 * @return The move calculated by minimax algorithm.
+	 */
+	@Override
+	public CompletableFuture<Operator> getOperatorAsync(Position position, Executor executor, final long timeLimit) {
+		final Position	copy = position.clone();
+		return AsyncSearch.submit(executor, request -> search(copy, timeLimit, request));
+	}
+
+	/**
+	 * Calculates the move on an executor like {@link #getOperatorAsync(Position, Executor, long)},
+	 * with the score and the statistics of its own search.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param executor The executor to search on.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search every move.
+	 * @return The move calculated by minimax algorithm, with what the search found.
+	 */
+	public CompletableFuture<SearchResult> searchAsync(Position position, Executor executor, final long timeLimit) {
+		final Position	copy = position.clone();
+		return AsyncSearch.submit(executor, request -> {
+			synchronized (searching) {
+				Operator	move = searchMove(copy, timeLimit, request);
+				return new SearchResult(move, score, statistics);
+			}
+		});
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state using minimax algorithm. The
+	 * state of a search is kept in the machine player, so a search waits for the one running to
+	 * finish.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search every move.
+	 * @param request The future of the move, or <code>null</code>.
+	 * @return The move calculated by minimax algorithm.
+	 * @throws CancellationException If the future of the move was cancelled.
+	 */
+	private Operator search(Position position, long timeLimit, Future<?> request) throws GameException {
+		synchronized (searching) {
+			return searchMove(position, timeLimit, request);
+		}
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state using minimax algorithm, the
+	 * search running alone.
+	 */
+	private Operator searchMove(Position position, long timeLimit, Future<?> request) throws GameException {
+		if (!(position instanceof ChairGame) || position.isTerminal() || position.getNext() != identity || maxDepth < 1) {
 			throw new GameException();
 		}
-		Operator	bestOperator = null;
+		int	bestChair = -1;
 		int	score = 0, bestScore = Integer.MIN_VALUE;
-		for (Operator operator : position.operators()) {
-			Position	newPosition = operator.applyTo(position);
-			if ((score = evaluate(newPosition, maxDepth - 1)) > bestScore) {
-				bestScore = score;
-				bestOperator = operator; 
+		ChairGame	searchPosition = ((ChairGame) position).clone();
+		int[]	moves = buffers.moves(maxDepth, searchPosition.size());
+		int	count = searchPosition.moves(moves);
+		counters.start();
+		counters.startIteration();
+		this.deadline = timeLimit > 0 ? System.nanoTime() + timeLimit * 1000000L : 0;
+		this.request = request;
+		boolean	completed = true;
+		try {
+			for (int k = 0; k < count; k++) {
+				searchPosition.apply(moves[k]);
+				score = evaluate(searchPosition, maxDepth - 1);
+				searchPosition.undo();
+				if (score > bestScore) {
+					bestScore = score;
+					bestChair = moves[k];
+				}
 			}
+		} catch (AlphaBetaPlayer.SearchTimeout e) {
+			completed = false;
+			if (bestChair < 0) bestChair = moves[0];
+		} finally {
+			this.request = null;
 		}
-		return bestOperator;
+		counters.endIteration(maxDepth, completed);
+		this.score = bestScore;
+		statistics = counters.finish(name, completed ? maxDepth : 0);
+		monitor.record(statistics);
+		if (request != null && request.isCancelled()) throw new CancellationException();
+		return Sit.of(bestChair);
 	}
 
 	/**
@@ -162,8 +328,14 @@ public class MinimaxPlayer extends PlayerImp {
 	 * @param depth 
 	 * @return The value of the evaluation of the given state.
 	 */
-	private int evaluate(Position position, int depth) throws GameException {
+	private int evaluate(ChairGame position, int depth) {
+		counters.nodes.increment();
+		if ((deadline != 0 || request != null) && (++visited & 1023) == 0
+				&& ((deadline != 0 && System.nanoTime() - deadline > 0) || (request != null && request.isDone()))) {
+			throw AlphaBetaPlayer.TIMEOUT;
+		}
 		if (position.isTerminal()) {
+			counters.terminals.increment();
 			if (position.getWinner() == identity)
 				return MAX_SCORE;
 			else if (position.getWinner() == identity.opponent())
@@ -171,7 +343,10 @@ public class MinimaxPlayer extends PlayerImp {
 			else
 				return 0;
 		}
-		if (depth == 0) return ef.getValue(position, identity);
+		if (depth == 0) {
+			counters.evaluations.increment();
+			return ef.getValue(position, identity);
+		}
 		return position.getNext() == identity ? evaluateMax(position, depth) : evaluateMin(position, depth);
 	}
 
@@ -182,11 +357,14 @@ public class MinimaxPlayer extends PlayerImp {
 	 * @param depth 
 	 * @return The value of the evaluation of the given state.
 	 */
-	private int evaluateMin(Position position, int depth) throws GameException {
+	private int evaluateMin(ChairGame position, int depth) {
 		int	score, bestScore = Integer.MAX_VALUE;
-		for (Operator operator : position.operators()) {
-			Position	newPosition = operator.applyTo(position);
-			if ((score = evaluate(newPosition, depth - 1)) < bestScore) bestScore = score;
+		int[]	moves = buffers.moves(depth, position.size());
+		int	count = position.moves(moves);
+		for (int k = 0; k < count; k++) {
+			position.apply(moves[k]);
+			if ((score = evaluate(position, depth - 1)) < bestScore) bestScore = score;
+			position.undo();
 		}
 		return bestScore;
 	}
@@ -198,11 +376,14 @@ public class MinimaxPlayer extends PlayerImp {
 	 * @param depth 
 	 * @return The value of the evaluation of the given state.
 	 */
-	private int evaluateMax(Position position, int depth) throws GameException {
+	private int evaluateMax(ChairGame position, int depth) {
 		int	score, bestScore = Integer.MIN_VALUE;
-		for (Operator operator : position.operators()) {
-			Position	newPosition = operator.applyTo(position);
-			if ((score = evaluate(newPosition, depth - 1)) > bestScore) bestScore = score;
+		int[]	moves = buffers.moves(depth, position.size());
+		int	count = position.moves(moves);
+		for (int k = 0; k < count; k++) {
+			position.apply(moves[k]);
+			if ((score = evaluate(position, depth - 1)) > bestScore) bestScore = score;
+			position.undo();
 		}
 		return bestScore;
 	}
@@ -0,0 +1,668 @@
+package chairgame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * AI for the chair game choosing moves by Monte Carlo tree search, without an evaluation function.
+ *
+ * Every playout walks down the tree choosing the moves by UCT, the upper confidence bound of their
+ * win rate, adds the moves of the game state it ends at, and plays the game out with random
+ * moves. The winner is counted in every game state of the walk. The move returned is the root move
+ * visited the most times.
+ *
+ * The nodes of a tree are kept in arrays allocated once, so a search allocates no memory and the
+ * number of nodes is bounded: once the arrays are full the tree stops growing and the playouts
+ * start at its leaves. With several threads every thread grows its own tree from the root, and
+ * the visits of the root moves are added up at the end. A search stops after a number of
+ * playouts or when its time limit runs out, whichever comes first.
+ */
+public class MonteCarloPlayer extends PlayerImp {
+
+	/**
+	 * The default name of the machine player.
+	 */
+	private static final String	NAME = "Computer";
+
+	/**
+	 * Default value of the number of playouts of a move.
+	 */
+	private static final int	PLAYOUTS = 10000;
+
+	/**
+	 * Default value of the number of nodes the trees of a search can hold.
+	 */
+	private static final int	MAX_NODES = 1 << 20;
+
+	/**
+	 * The clock is read after this many playouts of a thread.
+	 */
+	private static final int	CHECK_INTERVAL = 64;
+
+	/**
+	 * The number of playouts of a move, or <code>0</code> to play out until the time limit.
+	 */
+	private int	playouts = PLAYOUTS;
+
+	/**
+	 * The time limit of a move in milliseconds, or <code>0</code> if there is none.
+	 */
+	private long	timeLimit;
+
+	/**
+	 * The weight of the exploration term of UCT.
+	 */
+	private double	exploration = Math.sqrt(2);
+
+	/**
+	 * Set if the playouts choose the better of two random moves instead of any random move.
+	 */
+	private boolean	guided;
+
+	/**
+	 * The number of nodes the trees of a search can hold together.
+	 */
+	private int	maxNodes = MAX_NODES;
+
+	/**
+	 * The trees of the threads, kept for the next search.
+	 */
+	private Tree[]	trees = new Tree[0];
+
+	/**
+	 * Held by the running search, so that the searches of the machine player run one at a time.
+	 */
+	private final Object	searching = new Object();
+
+	/**
+	 * The number of threads searching.
+	 */
+	private int	threads = 1;
+
+	/**
+	 * The pool running the threads of a search, or <code>null</code> with a single thread.
+	 */
+	private ForkJoinPool	pool;
+
+	/**
+	 * The source of the seeds of the random playouts.
+	 */
+	private SplittableRandom	random = new SplittableRandom();
+
+	/**
+	 * The number of playouts of the last search.
+	 */
+	private long	lastPlayouts;
+
+	/**
+	 * The time the last search took in nanoseconds.
+	 */
+	private long	lastTime;
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 */
+	public MonteCarloPlayer(Identity identity) {
+		this(NAME, identity);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param playouts The number of playouts of a move.
+	 */
+	public MonteCarloPlayer(Identity identity, int playouts) {
+		this(NAME, identity, playouts);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 */
+	public MonteCarloPlayer(String name, Identity identity) {
+		this(name, identity, PLAYOUTS);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param playouts The number of playouts of a move.
+	 */
+	public MonteCarloPlayer(String name, Identity identity, int playouts) {
+		super(name, identity);
+		this.playouts = playouts;
+	}
+
+	/**
+	 * @return <code>false</code> as the machine player is not interactive
+	 */
+	public boolean isInteractive() {
+		return false;
+	}
+
+	/**
+	 * Returns the number of playouts of a move.
+	 *
+	 * @return The number of playouts, or <code>0</code> if only the time limit stops the search.
+	 */
+	public int getPlayouts() {
+		return playouts;
+	}
+
+	/**
+	 * Sets the number of playouts of a move.
+	 *
+	 * @param playouts The number of playouts, or <code>0</code> to play out until the time limit,
+	 *        which a move then needs.
+	 */
+	public void setPlayouts(int playouts) {
+		this.playouts = playouts;
+	}
+
+	/**
+	 * Returns the time limit of a move.
+	 *
+	 * @return The time limit in milliseconds, or <code>0</code> if there is none.
+	 */
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	/**
+	 * Sets the time limit of a move.
+	 *
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to play out the number of
+	 *        playouts.
+	 */
+	public void setTimeLimit(long timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Returns the weight of the exploration term of UCT.
+	 *
+	 * @return The weight, by default the square root of 2.
+	 */
+	public double getExploration() {
+		return exploration;
+	}
+
+	/**
+	 * Sets the weight of the exploration term of UCT. Higher weights try the moves more evenly,
+	 * lower ones concentrate on the moves winning the most.
+	 *
+	 * @param exploration The weight.
+	 */
+	public void setExploration(double exploration) {
+		this.exploration = exploration;
+	}
+
+	/**
+	 * Returns if the playouts are guided.
+	 *
+	 * @return <code>true</code> if the playouts choose the better of two random moves,
+	 *         <code>false</code> if they play any random move.
+	 */
+	public boolean isGuided() {
+		return guided;
+	}
+
+	/**
+	 * Sets if the playouts are guided: a guided playout draws two random moves and plays the one
+	 * leaving fewer moves to the opponent. The playouts are slower but closer to real play.
+	 *
+	 * @param guided <code>true</code> to guide the playouts, <code>false</code> otherwise.
+	 */
+	public void setGuided(boolean guided) {
+		this.guided = guided;
+	}
+
+	/**
+	 * Returns the number of nodes the trees of a search can hold together.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+	/**
+	 * Sets the number of nodes the trees of a search can hold together. A node takes 20 bytes.
+	 *
+	 * @param maxNodes The number of nodes.
+	 */
+	public void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+		this.trees = new Tree[0];
+	}
+
+	/**
+	 * Returns the number of threads the machine player searches with.
+	 *
+	 * @return The number of threads.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of threads the machine player searches with, each growing its own tree.
+	 *
+	 * @param threads The number of threads.
+	 */
+	public void setThreads(int threads) {
+		if (pool != null) pool.shutdown();
+		this.threads = threads;
+		this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		this.trees = new Tree[0];
+	}
+
+	/**
+	 * Sets the seed of the random playouts, so that a search with one thread and no time limit can
+	 * be repeated.
+	 *
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed) {
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Stops the threads of the machine player.
+	 */
+	public void shutdown() {
+		if (pool != null) pool.shutdown();
+	}
+
+	/**
+	 * Returns the number of playouts of the last search.
+	 *
+	 * @return The number of playouts.
+	 */
+	public long getLastPlayouts() {
+		return lastPlayouts;
+	}
+
+	/**
+	 * Returns the time the last search took.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getLastTime() {
+		return lastTime;
+	}
+
+	/**
+	 * Returns the speed of the last search.
+	 *
+	 * @return The number of playouts per second, <code>0</code> if there was no search.
+	 */
+	public double getPlayoutsPerSecond() {
+		return lastTime == 0 ? 0 : lastPlayouts * 1e9 / lastTime;
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state by Monte Carlo tree search.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @return The root move visited the most times, ties going to the lower chair.
+	 */
+	public Operator getOperator(Position position) throws GameException {
+		return search(position, timeLimit, null);
+	}
+
+	/**
+	 * Calculates the move on an executor. The search stops at the time limit, and soon after the
+	 * future is cancelled.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param executor The executor to search on, the threads of the machine player playing out.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> for the time limit of the
+	 *        machine player.
+	 * @return The root move visited the most times, or a future failing with a
+	 *         {@link GameException} if the search would have neither a number of playouts nor a
+	 *         time limit.
+	 */
+	@Override
+	public CompletableFuture<Operator> getOperatorAsync(Position position, Executor executor, final long timeLimit) {
+		final ChairGame	game = ((ChairGame) position).clone();
+		return AsyncSearch.submit(executor, request -> search(game, timeLimit > 0 ? timeLimit : this.timeLimit, request));
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state by Monte Carlo tree search. The
+	 * search trees are kept in the machine player, so a search waits for the one running to finish.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> if there is none.
+	 * @param request The future of the move, or <code>null</code>.
+	 * @return The root move visited the most times, ties going to the lower chair.
+	 * @throws CancellationException If the future of the move was cancelled.
+	 */
+	private Operator search(Position position, long timeLimit, Future<?> request) throws GameException {
+		synchronized (searching) {
+			return searchMove(position, timeLimit, request);
+		}
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state by Monte Carlo tree search, the
+	 * search running alone.
+	 */
+	private Operator searchMove(Position position, long timeLimit, final Future<?> request) throws GameException {
+		if (position.isTerminal() || position.getNext() != identity || (playouts <= 0 && timeLimit <= 0)) {
+			throw new GameException();
+		}
+		final ChairGame	game = (ChairGame) position;
+		long	start = System.nanoTime();
+		final long	deadline = timeLimit > 0 ? start + timeLimit * 1000000L : 0;
+		if (trees.length != threads) {
+			trees = new Tree[threads];
+			for (int t = 0; t < threads; t++) {
+				trees[t] = new Tree(Math.max(maxNodes / threads, game.size() + 1));
+			}
+		}
+		// a thread without a playout of its share would play until the deadline, so fewer
+		// playouts than threads leave the rest of the threads out
+		final int	active = playouts > 0 ? Math.min(threads, playouts) : threads;
+		long	total = 0;
+		if (active == 1) {
+			total = trees[0].search(game.clone(), playouts, deadline, request, random.split());
+		} else {
+			List<Callable<Long>>	tasks = new ArrayList<Callable<Long>>();
+			for (int t = 0; t < active; t++) {
+				final Tree	tree = trees[t];
+				// the playouts are shared out, the first threads taking the remainder
+				final int	share = playouts / active + (t < playouts % active ? 1 : 0);
+				final SplittableRandom	seed = random.split();
+				tasks.add(() -> tree.search(game.clone(), share, deadline, request, seed));
+			}
+			try {
+				for (Future<Long> future : pool.invokeAll(tasks)) {
+					total += future.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new GameException();
+			} catch (ExecutionException e) {
+				throw new GameException();
+			}
+		}
+		// the root moves are the same in every tree, in increasing order
+		int	best = -1;
+		long	bestVisits = -1;
+		for (int k = 0; k < trees[0].count[0]; k++) {
+			long	visits = 0;
+			for (int t = 0; t < active; t++) {
+				visits += trees[t].visits[trees[t].first[0] + k];
+			}
+			if (visits > bestVisits) {
+				bestVisits = visits;
+				best = trees[0].move[trees[0].first[0] + k];
+			}
+		}
+		lastPlayouts = total;
+		lastTime = System.nanoTime() - start;
+		if (request != null && request.isCancelled()) throw new CancellationException();
+		return Sit.of(best);
+	}
+
+	/**
+	 * The nodes of a search tree, each node being an index into the arrays. Node <code>0</code> is
+	 * the root, and the children of a node follow each other.
+	 */
+	private final class Tree {
+
+		/**
+		 * The chair sat on to get to the node.
+		 */
+		final int[]	move;
+
+		/**
+		 * The first child of the node, or <code>-1</code> if its moves have not been added.
+		 */
+		final int[]	first;
+
+		/**
+		 * The number of children of the node.
+		 */
+		final int[]	count;
+
+		/**
+		 * The number of playouts through the node.
+		 */
+		final int[]	visits;
+
+		/**
+		 * The number of playouts through the node won by the player who moved to it.
+		 */
+		final int[]	wins;
+
+		/**
+		 * The number of nodes in use.
+		 */
+		int	size;
+
+		/**
+		 * The nodes of the walk of the playout.
+		 */
+		int[]	path = new int[0];
+
+		/**
+		 * The moves of the game state added to the tree.
+		 */
+		int[]	buffer = new int[0];
+
+		/**
+		 * The chairs PLAYER_A and PLAYER_B may still sit on during the random moves of a playout.
+		 */
+		int[]	candidatesA = new int[0], candidatesB = new int[0];
+
+		/**
+		 * The number of chairs in the candidates.
+		 */
+		int	countA, countB;
+
+		Tree(int capacity) {
+			move = new int[capacity];
+			first = new int[capacity];
+			count = new int[capacity];
+			visits = new int[capacity];
+			wins = new int[capacity];
+		}
+
+		/**
+		 * Grows the tree of a game state.
+		 *
+		 * @param game The game state, which is changed during the search.
+		 * @param playouts The number of playouts, or <code>0</code> to play out until the deadline.
+		 * @param deadline The value of {@link System#nanoTime()} to stop at, or <code>0</code>.
+		 * @param request The future of the move, the search stops when it is done, or
+		 *        <code>null</code>.
+		 * @param random The source of the random moves.
+		 * @return The number of playouts.
+		 */
+		long search(ChairGame game, int playouts, long deadline, Future<?> request, SplittableRandom random) {
+			if (path.length < game.size() + 1) {
+				path = new int[game.size() + 1];
+				buffer = new int[game.size()];
+				candidatesA = new int[game.size()];
+				candidatesB = new int[game.size()];
+			}
+			size = 1;
+			move[0] = -1;
+			visits[0] = wins[0] = 0;
+			expand(0, game);
+			long	n = 0;
+			while (playouts <= 0 || n < playouts) {
+				if (n % CHECK_INTERVAL == 0 && n > 0 && ((deadline != 0 && System.nanoTime() >= deadline)
+						|| (request != null && request.isDone()))) {
+					break;
+				}
+				playout(game, random);
+				n++;
+			}
+			return n;
+		}
+
+		/**
+		 * Walks down the tree, adds the moves of the node it ends at, plays the game out and counts
+		 * the winner along the walk. The game state is left as it was.
+		 */
+		private void playout(ChairGame game, SplittableRandom random) {
+			Identity	root = game.getNext();
+			int	node = 0, depth = 0;
+			path[0] = 0;
+			while (count[node] > 0) {
+				node = select(node);
+				game.apply(move[node]);
+				path[++depth] = node;
+			}
+			if (first[node] < 0 && expand(node, game) && count[node] > 0) {
+				node = first[node];
+				game.apply(move[node]);
+				path[++depth] = node;
+			}
+			int	plies = 0;
+			countA = game.moves(Identity.PLAYER_A, candidatesA);
+			countB = game.moves(Identity.PLAYER_B, candidatesB);
+			for (int m = randomMove(game, random); m >= 0; m = randomMove(game, random)) {
+				game.apply(m);
+				plies++;
+			}
+			Identity	winner = game.getWinner();
+			for (; plies > 0; plies--) {
+				game.undo();
+			}
+			// the player moving to a node at an odd depth is the player at the root
+			boolean	rootWins = winner == root;
+			for (int d = depth; d >= 0; d--) {
+				int	v = path[d];
+				visits[v]++;
+				if (rootWins == (d % 2 == 1)) wins[v]++;
+				if (d > 0) game.undo();
+			}
+		}
+
+		/**
+		 * Returns the child of a node with the highest upper confidence bound, a child never visited
+		 * first.
+		 */
+		private int select(int node) {
+			double	log = Math.log(visits[node]);
+			int	best = -1;
+			double	bestBound = Double.NEGATIVE_INFINITY;
+			for (int c = first[node], end = c + count[node]; c < end; c++) {
+				if (visits[c] == 0) return c;
+				double	bound = (double) wins[c] / visits[c] + exploration * Math.sqrt(log / visits[c]);
+				if (bound > bestBound) {
+					bestBound = bound;
+					best = c;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Adds the moves of a node as its children, if they fit into the tree.
+		 *
+		 * @return <code>true</code> if the moves were added, <code>false</code> if the tree is full.
+		 */
+		private boolean expand(int node, ChairGame game) {
+			int	moves = game.getMoveCount();
+			if (size + moves > move.length) return false;
+			game.moves(buffer);
+			first[node] = size;
+			count[node] = moves;
+			for (int k = 0; k < moves; k++) {
+				int	c = size + k;
+				move[c] = buffer[k];
+				first[c] = -1;
+				count[c] = visits[c] = wins[c] = 0;
+			}
+			size += moves;
+			return true;
+		}
+
+		/**
+		 * Returns a random move of the player to move, or with guided playouts the better of two.
+		 *
+		 * @return The chair, or <code>-1</code> if the game is over.
+		 */
+		private int randomMove(ChairGame game, SplittableRandom random) {
+			int	m = randomChair(game, random);
+			if (guided && m >= 0) {
+				int	other = randomChair(game, random);
+				if (other >= 0) {
+					if (replies(game, other) < replies(game, m)) {
+						int	swap = m;
+						m = other;
+						other = swap;
+					}
+					// the move not played stays a candidate
+					if (game.getNext() == Identity.PLAYER_A) {
+						candidatesA[countA++] = other;
+					} else {
+						candidatesB[countB++] = other;
+					}
+				}
+			}
+			return m;
+		}
+
+		/**
+		 * Draws a random chair the player to move can sit on from their candidates. A chair a player
+		 * can not sit on stays so for the rest of the game, as figures are only added, so the chairs
+		 * drawn are dropped for good, and a playout draws every chair at most once for each player.
+		 *
+		 * @return The chair, or <code>-1</code> if the player can not sit anywhere.
+		 */
+		private int randomChair(ChairGame game, SplittableRandom random) {
+			boolean	a = game.getNext() == Identity.PLAYER_A;
+			int[]	candidates = a ? candidatesA : candidatesB;
+			int	n = a ? countA : countB;
+			int	m = -1;
+			while (n > 0) {
+				int	k = random.nextInt(n);
+				int	c = candidates[k];
+				candidates[k] = candidates[--n];
+				if (game.isApplicable(c)) {
+					m = c;
+					break;
+				}
+			}
+			if (a) {
+				countA = n;
+			} else {
+				countB = n;
+			}
+			return m;
+		}
+
+		/**
+		 * Returns the number of moves the opponent has after a move.
+		 */
+		private int replies(ChairGame game, int m) {
+			game.apply(m);
+			int	replies = game.getMoveCount();
+			game.undo();
+			return replies;
+		}
+	}
+
+}
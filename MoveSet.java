@@ -0,0 +1,148 @@
+package chairgame;
+
+/**
+ * The chairs a player can sit on, kept up to date as the figures come and go.
+ *
+ * The chairs are a bitset packed into longs, with a summary bitset marking the words which are not
+ * empty, and the number of chairs. Checking, adding and removing a chair are constant time, and
+ * listing the chairs in increasing order only visits the words holding any of them, so it costs
+ * about as much as the number of chairs listed however large the ring is.
+ */
+final class MoveSet implements Cloneable {
+
+	/**
+	 * The chairs, bit <code>i &amp; 63</code> of word <code>i &gt;&gt;&gt; 6</code> for chair
+	 * <code>i</code>.
+	 */
+	private long[]	words;
+
+	/**
+	 * Bit <code>w &amp; 63</code> of word <code>w &gt;&gt;&gt; 6</code> is set if word <code>w</code>
+	 * of the chairs is not empty.
+	 */
+	private long[]	summary;
+
+	/**
+	 * The number of chairs in the set.
+	 */
+	private int	count;
+
+	/**
+	 * Constructor to create the set of every chair of a ring.
+	 *
+	 * @param size The number of chairs.
+	 */
+	MoveSet(int size) {
+		words = new long[(size + 63) >>> 6];
+		summary = new long[(words.length + 63) >>> 6];
+		for (int w = 0; w < words.length; w++) {
+			words[w] = w < words.length - 1 || size % 64 == 0 ? -1L : (1L << size) - 1;
+			summary[w >>> 6] |= 1L << w;
+		}
+		count = size;
+	}
+
+	/**
+	 * Returns the number of chairs in the set.
+	 *
+	 * @return The number of chairs.
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the first 64 chairs as a mask.
+	 *
+	 * @return Mask with bit <code>i</code> set for chair <code>i</code>.
+	 */
+	long first() {
+		return words[0];
+	}
+
+	/**
+	 * Checks if a chair is in the set.
+	 *
+	 * @param i The index of the chair.
+	 * @return <code>true</code> if the chair is in the set, <code>false</code> otherwise.
+	 */
+	boolean contains(int i) {
+		return ((words[i >>> 6] >>> i) & 1) != 0;
+	}
+
+	/**
+	 * Removes a chair.
+	 *
+	 * @param i The index of the chair.
+	 * @return <code>1</code> if the chair was in the set, <code>0</code> otherwise.
+	 */
+	int remove(int i) {
+		int	w = i >>> 6;
+		long	word = words[w];
+		long	bit = 1L << i;
+		if ((word & bit) == 0) return 0;
+		words[w] = word ^= bit;
+		if (word == 0) summary[w >>> 6] ^= 1L << w;
+		count--;
+		return 1;
+	}
+
+	/**
+	 * Adds a chair which is not in the set.
+	 *
+	 * @param i The index of the chair.
+	 */
+	void add(int i) {
+		int	w = i >>> 6;
+		if (words[w] == 0) summary[w >>> 6] |= 1L << w;
+		words[w] |= 1L << i;
+		count++;
+	}
+
+	/**
+	 * Adds or removes a chair.
+	 *
+	 * @param i The index of the chair.
+	 * @param in If the chair belongs to the set.
+	 */
+	void set(int i, boolean in) {
+		if (contains(i) != in) {
+			if (in) {
+				add(i);
+			} else {
+				remove(i);
+			}
+		}
+	}
+
+	/**
+	 * Writes the chairs into a buffer, in increasing order.
+	 *
+	 * @param buffer The array to write the indices of the chairs to, at least {@link #size()} long.
+	 * @return The number of chairs written.
+	 */
+	int toArray(int[] buffer) {
+		int	n = 0;
+		for (int s = 0; s < summary.length; s++) {
+			for (long nonEmpty = summary[s]; nonEmpty != 0; nonEmpty &= nonEmpty - 1) {
+				int	w = (s << 6) + Long.numberOfTrailingZeros(nonEmpty);
+				for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+					buffer[n++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+				}
+			}
+		}
+		return n;
+	}
+
+	@Override
+	public MoveSet clone() {
+		MoveSet	copy = null;
+		try {
+			copy = (MoveSet) super.clone();
+		} catch (CloneNotSupportedException cne) {}
+		copy.words = words.clone();
+		copy.summary = summary.clone();
+		return copy;
+	}
+
+}
@@ -0,0 +1,254 @@
+package chairgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The best moves of the first game states of a ring, searched in advance.
+ *
+ * Every game state up to a number of moves from the empty ring is searched deeply once, and its
+ * best move is stored for its canonical image, so rotations and reflections of the ring share one
+ * entry. An entry is the key of the image, its base 3 index ({@link ChairGame#getIndex()}) times
+ * two plus one if PLAYER_B moves, and the chair to sit on in the image. The keys are sorted and
+ * looked up by binary search, so a book written to a file is memory-mapped when opened and ready
+ * without being read.
+ */
+public class OpeningBook {
+
+	/**
+	 * The largest ring the game states of which can be keyed.
+	 */
+	public static final int	MAX_CHAIRS = ChairGame.MAX_INDEXED_CHAIRS;
+
+	/**
+	 * The first bytes of an opening book file.
+	 */
+	private static final int	MAGIC = 0x43474f42;
+
+	/**
+	 * The version of the file format.
+	 */
+	private static final int	VERSION = 1;
+
+	/**
+	 * The length of the file header in bytes.
+	 */
+	private static final int	HEADER_SIZE = 16;
+
+	/**
+	 * The number of chairs in the ring.
+	 */
+	private final int	size;
+
+	/**
+	 * The number of entries.
+	 */
+	private final int	count;
+
+	/**
+	 * The sorted keys of the entries.
+	 */
+	private final LongBuffer	keys;
+
+	/**
+	 * The chairs of the entries, in the order of the keys.
+	 */
+	private final ByteBuffer	moves;
+
+	/**
+	 * Constructor to create a book over its entries.
+	 *
+	 * @param data The keys of the entries, eight bytes each, followed by their chairs, one byte each.
+	 */
+	private OpeningBook(int size, int count, ByteBuffer data) {
+		this.size = size;
+		this.count = count;
+		data.order(ByteOrder.BIG_ENDIAN);
+		data.position(0).limit(8 * count);
+		this.keys = data.slice().order(ByteOrder.BIG_ENDIAN).asLongBuffer();
+		data.limit(9 * count).position(8 * count);
+		this.moves = data.slice();
+	}
+
+	/**
+	 * Returns the number of chairs in the ring.
+	 *
+	 * @return The number of chairs.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of game states in the book.
+	 *
+	 * @return The number of entries.
+	 */
+	public int entries() {
+		return count;
+	}
+
+	/**
+	 * Looks up the move of a game state.
+	 *
+	 * @param position The game state.
+	 * @return The chair to sit on, or <code>-1</code> if the game state is not in the book.
+	 */
+	public int probe(ChairGame position) {
+		if (position.size() != size) return -1;
+		int	t = position.getCanonicalTransform();
+		long	key = key(position, t);
+		int	low = 0, high = count - 1;
+		while (low <= high) {
+			int	middle = (low + high) >>> 1;
+			long	k = keys.get(middle);
+			if (k < key) {
+				low = middle + 1;
+			} else if (k > key) {
+				high = middle - 1;
+			} else {
+				return position.inverseTransform(moves.get(middle) & 0xff, t);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the key of a symmetric image of a game state.
+	 *
+	 * @param position The game state.
+	 * @param t The index of the symmetric image, see {@link ChairGame#transform(int, int)}.
+	 * @return The key of the image.
+	 */
+	static long key(ChairGame position, int t) {
+		return 2 * position.getIndex(t) + (position.getNext() == Identity.PLAYER_B ? 1 : 0);
+	}
+
+	/**
+	 * Searches the game states up to a number of moves from the empty ring.
+	 *
+	 * @param size The number of chairs, at most {@link #MAX_CHAIRS}.
+	 * @param plies The number of moves from the empty ring, the game states after them are not
+	 *        searched.
+	 * @param depth The depth of the alpha-beta search of every game state.
+	 * @return The book, held in memory.
+	 */
+	public static OpeningBook build(int size, int plies, int depth) {
+		if (size < 1 || size > MAX_CHAIRS) {
+			throw new IllegalArgumentException("Invalid number of chairs: " + size);
+		}
+		EvaluationFunction<ChairGame>	ef = new ChairEvaluationFunction3();
+		AlphaBetaPlayer	searchA = new AlphaBetaPlayer(Identity.PLAYER_A, depth, ef);
+		AlphaBetaPlayer	searchB = new AlphaBetaPlayer(Identity.PLAYER_B, depth, ef);
+		Map<Long, Integer>	entries = new TreeMap<Long, Integer>();
+		try {
+			build(new ChairGame(size), plies, searchA, searchB, entries);
+		} catch (GameException e) {
+			throw new IllegalStateException(e);
+		}
+		ByteBuffer	data = ByteBuffer.allocate(9 * entries.size()).order(ByteOrder.BIG_ENDIAN);
+		int	k = 0;
+		for (Map.Entry<Long, Integer> entry : entries.entrySet()) {
+			data.putLong(8 * k, entry.getKey());
+			data.put(8 * entries.size() + k, entry.getValue().byteValue());
+			k++;
+		}
+		return new OpeningBook(size, entries.size(), data);
+	}
+
+	/**
+	 * Searches a game state, if no symmetric image of it has been, and the game states after it.
+	 */
+	private static void build(ChairGame position, int plies, AlphaBetaPlayer searchA, AlphaBetaPlayer searchB,
+			Map<Long, Integer> entries) throws GameException {
+		if (plies == 0 || position.isTerminal()) return;
+		int	t = position.getCanonicalTransform();
+		long	key = key(position, t);
+		if (entries.containsKey(key)) return;
+		AlphaBetaPlayer	search = position.getNext() == Identity.PLAYER_A ? searchA : searchB;
+		int	chair = ((Sit) search.getOperator(position)).getI();
+		entries.put(key, position.transform(chair, t));
+		int[]	chairs = new int[position.getMoveCount()];
+		int	n = position.moves(chairs);
+		for (int k = 0; k < n; k++) {
+			position.apply(chairs[k]);
+			build(position, plies - 1, searchA, searchB, entries);
+			position.undo();
+		}
+	}
+
+	/**
+	 * Writes the book to a file.
+	 *
+	 * @param file The file to write.
+	 * @throws IOException If the file can not be written.
+	 */
+	public void write(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer	header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(count).flip();
+			while (header.hasRemaining()) channel.write(header);
+			ByteBuffer	data = ByteBuffer.allocate(9 * count).order(ByteOrder.BIG_ENDIAN);
+			for (int k = 0; k < count; k++) {
+				data.putLong(keys.get(k));
+			}
+			for (int k = 0; k < count; k++) {
+				data.put(moves.get(k));
+			}
+			data.flip();
+			while (data.hasRemaining()) channel.write(data);
+		}
+	}
+
+	/**
+	 * Opens a book written to a file, mapping it into memory.
+	 *
+	 * @param file The file to read.
+	 * @return The book.
+	 * @throws IOException If the file can not be read or it is not an opening book.
+	 */
+	public static OpeningBook open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer	header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0) {}
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new IOException("Not an opening book file: " + file);
+			}
+			int	size = header.getInt();
+			int	count = header.getInt();
+			if (size < 1 || size > MAX_CHAIRS || count < 0 || channel.size() != HEADER_SIZE + 9L * count) {
+				throw new IOException("Corrupt opening book file: " + file);
+			}
+			return new OpeningBook(size, count, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, 9L * count));
+		}
+	}
+
+	/**
+	 * Builds the opening book of a ring and writes it to a file.
+	 *
+	 * @param args The number of chairs, the number of moves, the depth of the search and the name of
+	 *        the file.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 4) {
+			System.out.println("Usage: OpeningBook <number of chairs> <moves> <depth> <file>");
+			return;
+		}
+		int	size = Integer.parseInt(args[0]);
+		long	start = System.nanoTime();
+		OpeningBook	book = build(size, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+		book.write(Paths.get(args[3]));
+		System.out.printf("Searched %d game states in %d ms%n", book.entries(), (System.nanoTime() - start) / 1000000);
+	}
+
+}
@@ -0,0 +1,297 @@
+package chairgame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI for the chair game searching the game tree on several threads.
+ *
+ * The search is the alpha-beta search of {@link AlphaBetaPlayer}, split over a
+ * {@link ForkJoinPool} by the young brothers wait rule: at the root and at every game state at
+ * least {@link #getSplitDepth()} above the depth limit the first move is searched alone, then the
+ * rest of the moves are searched in parallel with the window it produced. Idle threads steal the
+ * waiting moves. The threads share the transposition table, and the move returned is the same as
+ * with a single thread starting from the same table.
+ */
+public class ParallelSearchPlayer extends AlphaBetaPlayer {
+
+	/**
+	 * Default value of the remaining depth a game state needs to be split at.
+	 */
+	private static final int	SPLIT_DEPTH = 4;
+
+	/**
+	 * The remaining depth a game state needs to be split at.
+	 */
+	private int	splitDepth = SPLIT_DEPTH;
+
+	/**
+	 * The pool running the search.
+	 */
+	private ForkJoinPool	pool;
+
+	/**
+	 * Constructor to create a machine player using every available processor.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param maxDepth The maximum depth of the game states' decision tree.
+	 * @param ef The evaluation function to use.
+	 */
+	public ParallelSearchPlayer(Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef) {
+		this(identity, maxDepth, ef, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param maxDepth The maximum depth of the game states' decision tree.
+	 * @param ef The evaluation function to use.
+	 * @param threads The number of threads to search with.
+	 */
+	public ParallelSearchPlayer(Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef, int threads) {
+		super(identity, maxDepth, ef);
+		setThreads(threads);
+	}
+
+	/**
+	 * Returns the number of threads the machine player searches with.
+	 *
+	 * @return The number of threads.
+	 */
+	public int getThreads() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Sets the number of threads the machine player searches with.
+	 *
+	 * @param threads The number of threads.
+	 */
+	public void setThreads(int threads) {
+		if (pool != null) pool.shutdown();
+		pool = new ForkJoinPool(threads);
+	}
+
+	/**
+	 * Returns the remaining depth a game state needs to be searched in parallel.
+	 *
+	 * @return The remaining depth.
+	 */
+	public int getSplitDepth() {
+		return splitDepth;
+	}
+
+	/**
+	 * Sets the remaining depth a game state needs to be searched in parallel. Splitting game states
+	 * closer to the depth limit makes more tasks which are smaller.
+	 *
+	 * @param splitDepth The remaining depth.
+	 */
+	public void setSplitDepth(int splitDepth) {
+		this.splitDepth = splitDepth;
+	}
+
+	/**
+	 * Stops the threads of the machine player.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state using parallel alpha-beta pruning.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search to the maximum depth.
+	 * @param request The future of the move, or <code>null</code>.
+	 * @return The move calculated by alpha-beta pruning.
+	 */
+	@Override
+	Operator searchMove(Position position, long timeLimit, Future<?> request) throws GameException {
+		try {
+			return super.searchMove(position, timeLimit, request);
+		} finally {
+			// tasks of a search interrupted by the time limit may still be unwinding
+			pool.awaitQuiescence(1, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Searches the first root move, then the rest of them in parallel. Every root move starts with
+	 * the window of the best one finished before it.
+	 */
+	@Override
+	int searchIteration(final ChairGame game, final List<Sit> operators, final int[] order, final int[] scores,
+			final int depth) {
+		return pool.invoke(new RecursiveTask<Integer>() {
+
+			private static final long	serialVersionUID = 1L;
+
+			private int	bestScore = Integer.MIN_VALUE;
+
+			@Override
+			protected Integer compute() {
+				search(order[0]);
+				List<RecursiveTask<Void>>	tasks = new ArrayList<RecursiveTask<Void>>();
+				for (int k = 1; k < order.length; k++) {
+					final int	m = order[k];
+					tasks.add(new RecursiveTask<Void>() {
+
+						private static final long	serialVersionUID = 1L;
+
+						@Override
+						protected Void compute() {
+							search(m);
+							return null;
+						}
+					});
+				}
+				invokeAll(tasks);
+				return iterationBest;
+			}
+
+			private void search(int m) {
+				int	alpha;
+				synchronized (this) {
+					alpha = rootAlpha(m, bestScore, iterationBest);
+				}
+				ChairGame	child = (ChairGame) operators.get(m).applyTo(game);
+				int	score = scores[m] = split(child, depth - 1, alpha, Integer.MAX_VALUE);
+				synchronized (this) {
+					if (isBetter(score, m, bestScore, iterationBest)) {
+						bestScore = score;
+						iterationBest = m;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Evaluating a game state with alpha-beta pruning, searching the moves after the first one in
+	 * parallel if the game state is far enough from the depth limit.
+	 *
+	 * @param position The game state.
+	 * @param depth The remaining depth.
+	 * @param alpha The score the player is already assured of.
+	 * @param beta The score the opponent is already assured of.
+	 * @return The same as {@link AlphaBetaPlayer#alphaBeta(ChairGame, int, int, int)}.
+	 */
+	private int split(ChairGame position, int depth, int alpha, int beta) {
+		if (depth < splitDepth) {
+			return alphaBeta(position, depth, alpha, beta);
+		}
+		countNode();
+		if (position.isTerminal()) {
+			return terminalScore(position);
+		}
+
+		int	transform = transform(position);
+		long	key = key(position, transform);
+		TranspositionTable	table = getTranspositionTable();
+		long	entry = table != null ? table.probe(key) : 0;
+		if (isCutoff(entry, depth, alpha, beta)) {
+			return TranspositionTable.score(entry);
+		}
+
+		boolean	max = position.getNext() == identity;
+		// a thread waiting for the tasks below may run others, so the scratch arrays can not be used
+		int[]	chairs = new int[position.size()];
+		int	count = orderMoves(position, depth, max, entry, transform, chairs, new int[position.size()]);
+		Node	node = new Node(position, depth, max, alpha, beta);
+		node.search(chairs[0]);
+		if (!node.isCutoff()) {
+			List<RecursiveTask<Void>>	tasks = new ArrayList<RecursiveTask<Void>>();
+			for (int k = 1; k < count; k++) {
+				tasks.add(node.task(chairs[k]));
+			}
+			RecursiveTask.invokeAll(tasks);
+		}
+		store(position, key, transform, depth, alpha, beta, node.bestScore, node.bestMove);
+		return node.bestScore;
+	}
+
+	/**
+	 * A game state searched in parallel, collecting the results of its moves.
+	 */
+	private class Node {
+
+		private final ChairGame	position;
+
+		private final int	depth;
+
+		private final boolean	max;
+
+		private int	alpha, beta, bestScore, bestMove = -1;
+
+		/**
+		 * Set once a move has refuted the game state.
+		 */
+		private boolean	cut;
+
+		Node(ChairGame position, int depth, boolean max, int alpha, int beta) {
+			this.position = position;
+			this.depth = depth;
+			this.max = max;
+			this.alpha = alpha;
+			this.beta = beta;
+			this.bestScore = max ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+		}
+
+		synchronized boolean isCutoff() {
+			return alpha >= beta;
+		}
+
+		/**
+		 * Searches a move with the window known when it starts, unless a sibling has already
+		 * refuted the game state.
+		 *
+		 * @param chair The index of the chair to sit on.
+		 */
+		void search(int chair) {
+			int	a, b;
+			synchronized (this) {
+				if (alpha >= beta) return;
+				a = alpha;
+				b = beta;
+			}
+			ChairGame	child = position.clone();
+			child.apply(chair);
+			int	score = split(child, depth - 1, a, b);
+			synchronized (this) {
+				if (max ? score > bestScore : score < bestScore) {
+					bestScore = score;
+					bestMove = chair;
+				}
+				if (max) {
+					if (bestScore > alpha) alpha = bestScore;
+				} else {
+					if (bestScore < beta) beta = bestScore;
+				}
+				if (alpha >= beta && !cut) {
+					cut = true;
+					counters.cutoffs.increment();
+				}
+			}
+		}
+
+		RecursiveTask<Void> task(final int chair) {
+			return new RecursiveTask<Void>() {
+
+				private static final long	serialVersionUID = 1L;
+
+				@Override
+				protected Void compute() {
+					search(chair);
+					return null;
+				}
+			};
+		}
+	}
+
+}
@@ -1,5 +1,9 @@
 package chairgame;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Interface to create classes representing players.
  */
@@ -49,4 +53,42 @@ public interface Player {
 	 */
 	public Operator getOperator(Position position) throws GameException;
 
+	/**
+	 * Calculates the player's next move on an executor, without blocking the caller.
+	 *
+	 * @param position The game state where the player needs to move, copied before the call returns.
+	 * @param executor The executor to calculate the move on.
+	 * @return The move, completing like {@link #getOperatorAsync(Position, Executor, long)} without a
+	 *         time limit.
+	 */
+	public default CompletableFuture<Operator> getOperatorAsync(Position position, Executor executor) {
+		return getOperatorAsync(position, executor, 0);
+	}
+
+	/**
+	 * Calculates the player's next move on an executor, without blocking the caller.
+	 *
+	 * Machine players searching the game tree stop at the time limit with the best move found by
+	 * then, and stop searching soon after the future is cancelled. Other players are run by
+	 * {@link #getOperator(Position)}, and their future fails with a
+	 * {@link java.util.concurrent.TimeoutException} at the time limit, while the calculation itself
+	 * may go on.
+	 *
+	 * A player instance calculates one move at a time, as the machine players keep the state of
+	 * their search in the instance: a call made while a move of the same player is being calculated
+	 * waits on the executor for it to finish, and its time limit counts from when it starts. Games
+	 * calculated in parallel need a player each.
+	 *
+	 * @param position The game state where the player needs to move, copied before the call returns.
+	 * @param executor The executor to calculate the move on.
+	 * @param timeLimit The time the move may take in milliseconds, or <code>0</code> for the player's
+	 *        own limit.
+	 * @return The move, or a future failing with the {@link GameException} of the player.
+	 */
+	public default CompletableFuture<Operator> getOperatorAsync(Position position, Executor executor, long timeLimit) {
+		final Position	copy = position.clone();
+		CompletableFuture<Operator>	future = AsyncSearch.submit(executor, request -> getOperator(copy));
+		return timeLimit > 0 ? future.orTimeout(timeLimit, TimeUnit.MILLISECONDS) : future;
+	}
+
 }
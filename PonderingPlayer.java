@@ -0,0 +1,331 @@
+package chairgame;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Machine player thinking on the opponent's time.
+ *
+ * After every move it makes, the likely replies of the opponent are searched one by one on a
+ * background thread, the reply the search expects first, while the opponent is thinking. When the
+ * opponent's move arrives, pondering stops: a reply already searched is answered at once, a reply
+ * being searched is answered when that search ends, which is no later than a search started then
+ * would. Any other move is searched as usual, but with the transposition table filled by the
+ * pondering searches.
+ */
+public class PonderingPlayer extends PlayerImp {
+
+	/**
+	 * The default name of the machine player.
+	 */
+	private static final String	NAME = "Computer";
+
+	/**
+	 * The player searching the moves.
+	 */
+	private final AlphaBetaPlayer	search;
+
+	/**
+	 * The thread pondering.
+	 */
+	private final ExecutorService	executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread	thread = new Thread(runnable, "ponder");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * The replies searched since the last move, or <code>null</code>.
+	 */
+	private Ponder	ponder;
+
+	/**
+	 * The number of the opponent's moves answered from pondering, and of those which were not.
+	 */
+	private long	hits, misses;
+
+	/**
+	 * The time the pondering searches of the answered moves took before the opponent moved, in
+	 * nanoseconds.
+	 */
+	private long	savedTime;
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param search The player searching the moves, on its time limit or to its maximum depth.
+	 */
+	public PonderingPlayer(Identity identity, AlphaBetaPlayer search) {
+		this(NAME, identity, search);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param search The player searching the moves, on its time limit or to its maximum depth.
+	 */
+	public PonderingPlayer(String name, Identity identity, AlphaBetaPlayer search) {
+		super(name, identity);
+		this.search = search;
+		search.setIdentity(identity);
+	}
+
+	/**
+	 * @return <code>false</code> as the machine player is not interactive
+	 */
+	public boolean isInteractive() {
+		return false;
+	}
+
+	/**
+	 * Sets the player's identity, and the identity of the player searching the moves.
+	 *
+	 * @param identity The identity the player to be set.
+	 */
+	@Override
+	public void setIdentity(Identity identity) {
+		super.setIdentity(identity);
+		search.setIdentity(identity);
+	}
+
+	/**
+	 * Returns the player searching the moves.
+	 *
+	 * @return The player.
+	 */
+	public AlphaBetaPlayer getSearch() {
+		return search;
+	}
+
+	/**
+	 * Returns the number of the opponent's moves answered from pondering.
+	 *
+	 * @return The number of moves.
+	 */
+	public long getPonderHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of the opponent's moves made while pondering and searched after them.
+	 *
+	 * @return The number of moves.
+	 */
+	public long getPonderMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the share of the opponent's moves answered from pondering.
+	 *
+	 * @return The ponder hit rate, or <code>0</code> if the opponent has not moved while pondering.
+	 */
+	public double getPonderHitRate() {
+		return hits + misses > 0 ? (double) hits / (hits + misses) : 0;
+	}
+
+	/**
+	 * Returns the time the moves answered from pondering were searched before the opponent moved,
+	 * which is the time the answers were sooner than searching them then.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getSavedTime() {
+		return savedTime;
+	}
+
+	/**
+	 * Stops pondering and the thread of the machine player.
+	 */
+	public void shutdown() {
+		if (ponder != null) ponder.finish(null);
+		ponder = null;
+		executor.shutdown();
+	}
+
+	/**
+	 * Answers the opponent's move from pondering, or searches it, and starts pondering the replies
+	 * to the move returned.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @return The move of the search.
+	 */
+	public Operator getOperator(Position position) throws GameException {
+		if (position.isTerminal() || position.getNext() != identity) {
+			throw new GameException();
+		}
+		ChairGame	game = (ChairGame) position;
+		Operator	operator = null;
+		if (ponder != null) {
+			operator = ponder.finish(game);
+			if (operator != null) {
+				hits++;
+				savedTime += ponder.saved;
+			} else {
+				misses++;
+			}
+			ponder = null;
+		}
+		if (operator == null) {
+			operator = search.getOperator(game);
+		}
+		ChairGame	next = game.clone();
+		next.apply(operator);
+		if (!next.isTerminal()) {
+			ponder = new Ponder(next);
+			ponder.task = executor.submit(ponder);
+		}
+		return operator;
+	}
+
+	/**
+	 * The searches of the opponent's replies to a move.
+	 */
+	private final class Ponder implements Runnable {
+
+		/**
+		 * The game state after the move.
+		 */
+		private final ChairGame	base;
+
+		/**
+		 * The opponent's replies, the likely ones first.
+		 */
+		private final int[]	replies;
+
+		/**
+		 * The number of replies.
+		 */
+		private final int	count;
+
+		/**
+		 * The answers to the replies searched, by the index of the reply.
+		 */
+		private final Operator[]	answers;
+
+		/**
+		 * The time the searches of the replies took in nanoseconds, by the index of the reply.
+		 */
+		private final long[]	times;
+
+		/**
+		 * Done when pondering has to stop at once; the search being run polls it.
+		 */
+		private final CompletableFuture<Void>	stop = new CompletableFuture<Void>();
+
+		/**
+		 * The index of the reply being searched, or <code>-1</code>.
+		 */
+		private int	current = -1;
+
+		/**
+		 * The value of {@link System#nanoTime()} the search of the current reply started at.
+		 */
+		private long	started;
+
+		/**
+		 * Set if pondering has to stop after the search of the current reply.
+		 */
+		private boolean	last;
+
+		/**
+		 * The time the search of the answered reply took before the opponent moved, in nanoseconds.
+		 */
+		private long	saved;
+
+		/**
+		 * The running searches.
+		 */
+		private Future<?>	task;
+
+		Ponder(ChairGame base) {
+			this.base = base;
+			this.replies = new int[base.getMoveCount()];
+			this.count = search.orderMoves(base, replies);
+			this.answers = new Operator[count];
+			this.times = new long[count];
+		}
+
+		@Override
+		public void run() {
+			ChairGame	game = base.clone();
+			for (int k = 0; k < count; k++) {
+				synchronized (this) {
+					if (last || stop.isDone()) return;
+					current = k;
+					started = System.nanoTime();
+				}
+				game.apply(replies[k]);
+				Operator	answer = null;
+				try {
+					if (!game.isTerminal()) answer = search.search(game, search.getTimeLimit(), stop);
+				} catch (GameException e) {
+				}
+				game.undo();
+				synchronized (this) {
+					// a search stopped early is not an answer
+					if (!stop.isDone()) answers[k] = answer;
+					times[k] = System.nanoTime() - started;
+					current = -1;
+				}
+			}
+		}
+
+		/**
+		 * Stops pondering for the opponent's move, waiting for the search of the move if it is the
+		 * one running.
+		 *
+		 * @param position The game state after the opponent's move, or <code>null</code>.
+		 * @return The answer to the move, or <code>null</code> if it has not been searched.
+		 */
+		Operator finish(ChairGame position) {
+			int	reply = find(position);
+			synchronized (this) {
+				if (reply >= 0 && answers[reply] != null) {
+					saved = times[reply];
+					stop.complete(null);
+				} else if (reply >= 0 && reply == current) {
+					saved = System.nanoTime() - started;
+					last = true;
+				} else {
+					stop.complete(null);
+				}
+			}
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				stop.complete(null);
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (ExecutionException e) {
+				return null;
+			}
+			return reply >= 0 ? answers[reply] : null;
+		}
+
+		/**
+		 * Returns the index of the reply leading to a game state.
+		 *
+		 * @param position The game state, or <code>null</code>.
+		 * @return The index, or <code>-1</code> if no reply leads to the game state.
+		 */
+		private int find(ChairGame position) {
+			if (position == null || position.size() != base.size()) return -1;
+			ChairGame	game = base.clone();
+			for (int k = 0; k < count; k++) {
+				game.apply(replies[k]);
+				boolean	found = game.getHash() == position.getHash() && game.equals(position);
+				game.undo();
+				if (found) return k;
+			}
+			return -1;
+		}
+	}
+
+}
@@ -36,6 +36,12 @@ public interface Position extends Cloneable {
 	 */
 	public void apply(Operator operator);
 
+	/**
+	 * Takes back the last move applied on the game state, so that a search can walk the game tree
+	 * on a single object instead of a copy per game state.
+	 */
+	public void undo();
+
 	/**
 	 * Returns if the given move can be applied to the game state.
 	 *
@@ -0,0 +1,369 @@
+package chairgame;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * AI for the chair game. It calculates the computer's next move using principal variation search.
+ *
+ * The first move of a game state, the one expected to be best, is searched with the full window,
+ * and the rest only with a window of one around the bound, proving that they are no better. A move
+ * failing that proof is searched again with the full window. Because the proofs are cheap, the
+ * search gains most from good move ordering: after the best move stored in the transposition
+ * table come the killer moves, the last two moves which refuted a game state at the same distance
+ * from the root, then the rest by their history, how deep the searches were in which the side to
+ * move refuted a game state by sitting on the chair.
+ *
+ * Without late move reductions the move returned is the same as the one {@link MinimaxPlayer}
+ * returns with the same depth and evaluation function, from a cleared transposition table as with
+ * {@link AlphaBetaPlayer}. With them the moves late in the order are first searched one ply less
+ * deep, which visits fewer game states but can miss a move which only the full depth shows to be
+ * better.
+ *
+ * The killer moves and the history belong to the current search, so a player runs one search at a
+ * time.
+ */
+public class PrincipalVariationPlayer extends AlphaBetaPlayer {
+
+	/**
+	 * The remaining depth a game state needs for its late moves to be reduced.
+	 */
+	private static final int	REDUCTION_DEPTH = 3;
+
+	/**
+	 * The number of moves of a game state searched to the full depth before the later ones are
+	 * reduced.
+	 */
+	private static final int	FULL_DEPTH_MOVES = 3;
+
+	/**
+	 * The history of a chair is halved for both sides once it grows beyond this.
+	 */
+	private static final int	MAX_HISTORY = 1 << 24;
+
+	/**
+	 * The number of low bits of an ordering key the history takes between moves evaluated the same.
+	 */
+	private static final int	HISTORY_BITS = 10;
+
+	/**
+	 * The values of the evaluation function are clamped to this in the ordering keys.
+	 */
+	private static final long	MAX_VALUE_KEY = 1L << 20;
+
+	/**
+	 * The ordering key of the best move stored in the transposition table, above every killer move.
+	 */
+	private static final int	HASH_MOVE_KEY = Integer.MAX_VALUE;
+
+	/**
+	 * The ordering key of the first killer move, the second one is one less, above every other move.
+	 */
+	private static final int	KILLER_KEY = Integer.MAX_VALUE - 1;
+
+	/**
+	 * Set if the late moves of a game state are searched one ply less deep first.
+	 */
+	private boolean	lateMoveReductions;
+
+	/**
+	 * The two killer moves of each distance from the root, the most recent first, or
+	 * <code>-1</code>.
+	 */
+	private int[][]	killers = new int[0][];
+
+	/**
+	 * The history of the chairs, by the ordinal of the side to move and the index of the chair.
+	 */
+	private int[][]	history = new int[2][0];
+
+	/**
+	 * The scratch arrays of the search.
+	 */
+	private final Buffers	buffers = new Buffers();
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param ef The evaluation function to use.
+	 */
+	public PrincipalVariationPlayer(Identity identity, EvaluationFunction<ChairGame> ef) {
+		super(identity, ef);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param maxDepth The maximum depth of the game states' decision tree.
+	 * @param ef The evaluation function to use.
+	 */
+	public PrincipalVariationPlayer(Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef) {
+		super(identity, maxDepth, ef);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param ef The evaluation function to use.
+	 */
+	public PrincipalVariationPlayer(String name, Identity identity, EvaluationFunction<ChairGame> ef) {
+		super(name, identity, ef);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param maxDepth The maximum depth of the game states' decision tree.
+	 * @param ef The evaluation function to use.
+	 */
+	public PrincipalVariationPlayer(String name, Identity identity, int maxDepth, EvaluationFunction<ChairGame> ef) {
+		super(name, identity, maxDepth, ef);
+	}
+
+	/**
+	 * Returns if the late moves of a game state are searched one ply less deep first.
+	 *
+	 * @return <code>true</code> if late move reductions are used, <code>false</code> otherwise.
+	 */
+	public boolean isLateMoveReductions() {
+		return lateMoveReductions;
+	}
+
+	/**
+	 * Sets if the late moves of a game state are searched one ply less deep first. A reduced move
+	 * scoring better than the best one so far is searched again to the full depth, but a reduced
+	 * move which seems no better is not, so the move returned may differ from the one of minimax.
+	 *
+	 * @param lateMoveReductions <code>true</code> to use late move reductions, <code>false</code>
+	 *        otherwise.
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/**
+	 * Calculating the move for the player for a given game state using principal variation search.
+	 * The killer moves of the previous search are forgotten, and its history counts half.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @param timeLimit The time limit in milliseconds, or <code>0</code> to search to the maximum depth.
+	 * @param request The future of the move, or <code>null</code>.
+	 * @return The move calculated by principal variation search.
+	 */
+	@Override
+	Operator searchMove(Position position, long timeLimit, Future<?> request) throws GameException {
+		killers = new int[getMaxDepth() + 1][2];
+		for (int[] killer : killers) {
+			Arrays.fill(killer, -1);
+		}
+		int	size = ((ChairGame) position).size();
+		for (int side = 0; side < history.length; side++) {
+			if (history[side].length != size) {
+				history[side] = new int[size];
+			}
+			for (int i = 0; i < size; i++) {
+				history[side][i] >>= 1;
+			}
+		}
+		return super.searchMove(position, timeLimit, request);
+	}
+
+	/**
+	 * Searches the first root move with the full window, and the rest with a window of one above
+	 * the best score so far, again with the full window if they beat it.
+	 */
+	@Override
+	int searchIteration(ChairGame game, List<Sit> operators, int[] order, int[] scores, int depth) {
+		int	bestScore = Integer.MIN_VALUE;
+		ChairGame	position = game.clone();
+		for (int m : order) {
+			int	alpha = rootAlpha(m, bestScore, iterationBest);
+			position.apply(operators.get(m));
+			int	score;
+			if (iterationBest < 0) {
+				score = pvs(position, depth - 1, 1, alpha, Integer.MAX_VALUE);
+			} else {
+				score = pvs(position, depth - 1, 1, alpha, alpha + 1);
+				if (score > alpha) score = pvs(position, depth - 1, 1, alpha, Integer.MAX_VALUE);
+			}
+			scores[m] = score;
+			position.undo();
+			if (isBetter(score, m, bestScore, iterationBest)) {
+				bestScore = score;
+				iterationBest = m;
+			}
+		}
+		return iterationBest;
+	}
+
+	/**
+	 * Evaluating a game state with principal variation search.
+	 */
+	@Override
+	int alphaBeta(ChairGame position, int depth, int alpha, int beta) {
+		return pvs(position, depth, 1, alpha, beta);
+	}
+
+	/**
+	 * Evaluating a game state with fail-soft principal variation search. The moves are applied and
+	 * taken back on the game state, which is left as it was unless the search runs out of time.
+	 *
+	 * @param position The game state.
+	 * @param depth The remaining depth.
+	 * @param ply The distance from the root.
+	 * @param alpha The score the player is already assured of.
+	 * @param beta The score the opponent is already assured of.
+	 * @return The minimax value of the game state if it is strictly between alpha and beta,
+	 * otherwise a bound on the side of the window it falls on.
+	 */
+	private int pvs(ChairGame position, int depth, int ply, int alpha, int beta) {
+		countNode();
+		if (position.isTerminal()) {
+			return terminalScore(position);
+		}
+		if (depth == 0) {
+			return horizonScore(position);
+		}
+
+		int	transform = transform(position);
+		long	key = key(position, transform);
+		TranspositionTable	table = getTranspositionTable();
+		long	entry = table != null ? table.probe(key) : 0;
+		if (isCutoff(entry, depth, alpha, beta)) {
+			return TranspositionTable.score(entry);
+		}
+
+		boolean	max = position.getNext() == identity;
+		int	side = position.getNext().ordinal();
+		int[]	chairs = buffers.moves(depth, position.size());
+		int	count = orderMoves(position, depth, ply, side, entry, transform, chairs, buffers.keys);
+		int	alphaOrig = alpha, betaOrig = beta;
+		int	bestScore = max ? Integer.MIN_VALUE : Integer.MAX_VALUE, bestMove = -1;
+		for (int k = 0; k < count; k++) {
+			int	chair = chairs[k];
+			position.apply(chair);
+			int	score;
+			if (k == 0) {
+				score = pvs(position, depth - 1, ply + 1, alpha, beta);
+			} else {
+				// the window of one on the side of the bound the player is assured of
+				int	low = max ? alpha : beta - 1;
+				if (lateMoveReductions && depth >= REDUCTION_DEPTH && k >= FULL_DEPTH_MOVES && !isKiller(ply, chair)) {
+					score = pvs(position, depth - 2, ply + 1, low, low + 1);
+					if (max ? score > low : score <= low) {
+						score = pvs(position, depth - 1, ply + 1, low, low + 1);
+					}
+				} else {
+					score = pvs(position, depth - 1, ply + 1, low, low + 1);
+				}
+				if (score > alpha && score < beta) {
+					score = pvs(position, depth - 1, ply + 1, alpha, beta);
+				}
+			}
+			position.undo();
+			if (max ? score > bestScore : score < bestScore) {
+				bestScore = score;
+				bestMove = chair;
+			}
+			if (max) {
+				if (bestScore > alpha) alpha = bestScore;
+			} else {
+				if (bestScore < beta) beta = bestScore;
+			}
+			if (alpha >= beta) {
+				counters.cutoffs.increment();
+				remember(ply, side, chair, depth);
+				break;
+			}
+		}
+		store(position, key, transform, depth, alphaOrig, betaOrig, bestScore, bestMove);
+		return bestScore;
+	}
+
+	/**
+	 * Returns the moves of a game state in the order they should be searched: the best move stored
+	 * in the transposition table first, then the killer moves, then the rest by the evaluation
+	 * function and, between moves evaluated the same, by their history. Next to the depth limit,
+	 * where evaluating every move costs about as much as searching it, only the history is used.
+	 *
+	 * @param position The game state.
+	 * @param depth The remaining depth.
+	 * @param ply The distance from the root.
+	 * @param side The ordinal of the side to move.
+	 * @param entry The transposition table entry of the game state, or <code>0</code>.
+	 * @param transform The symmetric image the game state is stored as.
+	 * @param chairs The array to write the indices of the chairs to sit on to.
+	 * @param keys Scratch array for the ordering keys of the moves, indexed by chair.
+	 * @return The number of moves.
+	 */
+	private int orderMoves(ChairGame position, int depth, int ply, int side, long entry, int transform, int[] chairs, int[] keys) {
+		int	count = position.moves(chairs);
+		int[]	scores = history[side];
+		boolean	max = position.getNext() == identity;
+		for (int k = 0; k < count; k++) {
+			int	chair = chairs[k];
+			if (depth > 1) {
+				position.apply(chair);
+				long	value = getEvaluationFunction().getValue(position, identity);
+				position.undo();
+				value = Math.max(-MAX_VALUE_KEY, Math.min(MAX_VALUE_KEY, max ? value : -value));
+				keys[chair] = (int) (value << HISTORY_BITS) + Math.min(scores[chair], (1 << HISTORY_BITS) - 1);
+			} else {
+				keys[chair] = scores[chair];
+			}
+		}
+		// a killer which is not a move here gets a key no move reads
+		if (ply < killers.length) {
+			for (int j = 0; j < 2; j++) {
+				if (killers[ply][j] >= 0) keys[killers[ply][j]] = KILLER_KEY - j;
+			}
+		}
+		if (entry != 0 && TranspositionTable.move(entry) >= 0) {
+			keys[position.inverseTransform(TranspositionTable.move(entry), transform)] = HASH_MOVE_KEY;
+		}
+		sort(chairs, keys, count, true);
+		return count;
+	}
+
+	/**
+	 * Returns if a move is a killer move at a distance from the root.
+	 *
+	 * @param ply The distance from the root.
+	 * @param chair The index of the chair to sit on.
+	 * @return <code>true</code> if the move is one of the killer moves, <code>false</code> otherwise.
+	 */
+	private boolean isKiller(int ply, int chair) {
+		return ply < killers.length && (killers[ply][0] == chair || killers[ply][1] == chair);
+	}
+
+	/**
+	 * Remembers a move which refuted a game state, as a killer move and in the history.
+	 *
+	 * @param ply The distance from the root.
+	 * @param side The ordinal of the side which moved.
+	 * @param chair The index of the chair sat on.
+	 * @param depth The remaining depth of the game state.
+	 */
+	private void remember(int ply, int side, int chair, int depth) {
+		if (ply < killers.length && killers[ply][0] != chair) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = chair;
+		}
+		int[]	scores = history[side];
+		if ((scores[chair] += depth * depth) > MAX_HISTORY) {
+			for (int[] table : history) {
+				for (int i = 0; i < table.length; i++) {
+					table[i] >>= 1;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,472 @@
+package chairgame;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Exact solver of the chair game using depth-first proof-number search (df-pn).
+ *
+ * The game never ends in a draw: the player who can not sit loses. So a game state is either won
+ * or lost for the side to move, and proving that it is not lost is the same as proving that it is
+ * won. Every game state has a proof number, the least number of open game states which have to be
+ * solved to prove the side to move wins, and a disproof number for proving they lose. The side to
+ * move wins if one move leaves the opponent lost, so the proof number is the least disproof number
+ * of the moves and the disproof number the sum of their proof numbers. The search descends into
+ * the move with the least disproof number as long as the numbers stay below thresholds derived
+ * from the parent's, and only comes back when a sibling has become clearly more promising.
+ *
+ * An open game state starts with a disproof number of the number of moves its side to move has,
+ * so moves leaving the opponent few chairs are tried first. The numbers are kept in a table of
+ * fixed size, which keeps the entries of the larger searches when it is full, so the solver runs
+ * in bounded memory and searches a game state again if its entry was lost. Rotations and
+ * reflections of the ring share their entries when the game state solved is symmetric, like the
+ * empty ring; in the tree of any other game state they are rare, and finding the canonical image
+ * costs more than it saves. The solver is not thread-safe.
+ */
+public class ProofNumberSolver {
+
+	/**
+	 * The proof or disproof number of a game state which can not be proved or disproved.
+	 */
+	static final int	INFINITY = 1 << 30;
+
+	/**
+	 * The disproof threshold of the move searched is this much above the second least disproof
+	 * number, so the search does not switch back and forth between moves of similar numbers.
+	 */
+	private static final double	EPSILON = 0.5;
+
+	/**
+	 * The number of entries a key can be stored in.
+	 */
+	private static final int	WAYS = 4;
+
+	/**
+	 * The default memory of the table in megabytes.
+	 */
+	private static final int	DEFAULT_SIZE = 16;
+
+	/**
+	 * The bytes of a table entry.
+	 */
+	private static final int	ENTRY_SIZE = 20;
+
+	/**
+	 * Hash of the number of chairs, so that the game states of different rings do not share keys.
+	 */
+	private static final long	SIZE_KEY = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The keys of the entries, <code>0</code> for an empty one. Each key has {@link #WAYS} slots to
+	 * choose from.
+	 */
+	private final long[]	keys;
+
+	/**
+	 * The proof numbers, disproof numbers and the numbers of game states searched for them, by
+	 * entry.
+	 */
+	private final int[]	proofs, disproofs, works;
+
+	/**
+	 * The mask of the index of the first slot of a key.
+	 */
+	private final int	mask;
+
+	/**
+	 * The moves of the game states on the path searched, by distance from the root.
+	 */
+	private int[][]	moves = new int[0][];
+
+	/**
+	 * The keys and the initial numbers of the moves of the game states on the path searched, by
+	 * distance from the root.
+	 */
+	private long[][]	childKeys = new long[0][];
+
+	private int[][]	childProofs = new int[0][], childDisproofs = new int[0][];
+
+	/**
+	 * Set if the game state solved is symmetric, and the rotations and reflections of the game
+	 * states searched share their entries.
+	 */
+	private boolean	symmetric;
+
+	/**
+	 * The number of game states expanded by the last solve.
+	 */
+	private long	nodes;
+
+	/**
+	 * The game state of the last solve, or <code>null</code>.
+	 */
+	private ChairGame	solved;
+
+	/**
+	 * The number of distinct game states of the proof of the last solve, or <code>-1</code> until
+	 * they are counted.
+	 */
+	private long	proofSize = -1;
+
+	/**
+	 * The winning move found by the last solve, or <code>-1</code>.
+	 */
+	private int	winningMove = -1;
+
+	/**
+	 * Constructor to create a solver with a table of the default size.
+	 */
+	public ProofNumberSolver() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Constructor to create a solver. The table has to hold the game states the search is working
+	 * on, or the search keeps searching again what it lost and may not finish.
+	 *
+	 * @param megabytes The memory the table may use, rounded down to a power of two entries.
+	 * @throws IllegalArgumentException If the memory is less than a megabyte.
+	 */
+	public ProofNumberSolver(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("Invalid memory: " + megabytes);
+		}
+		long	entries = Long.highestOneBit((long) megabytes * (1 << 20) / ENTRY_SIZE);
+		int	size = (int) Math.min(entries, 1 << 30);
+		this.keys = new long[size];
+		this.proofs = new int[size];
+		this.disproofs = new int[size];
+		this.works = new int[size];
+		this.mask = size - WAYS;
+	}
+
+	/**
+	 * Returns the number of game states the last solve expanded, counting those searched again.
+	 *
+	 * @return The number of game states.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the size of the proof found by the last solve: the number of distinct game states in
+	 * a tree proving the result, symmetric ones counted once if the game state solved is symmetric.
+	 * Where the side to move wins the tree has one winning move, where they lose it has every move.
+	 *
+	 * The proof is counted on the first call after a solve, walking it through the table with a set
+	 * of the game states counted, which takes time and memory in proportion to the proof. Game
+	 * states whose entries were lost are searched again, without being added to the nodes.
+	 *
+	 * @return The number of game states of the proof, the solved one included, <code>0</code> if
+	 *         there was no solve.
+	 */
+	public long getProofSize() {
+		if (solved == null) return 0;
+		if (proofSize < 0) {
+			long	searched = nodes;
+			proofSize = proofSize(solved.clone(), 0, new HashSet<Long>());
+			nodes = searched;
+		}
+		return proofSize;
+	}
+
+	/**
+	 * Returns the winning move found by the last solve.
+	 *
+	 * @return The index of a chair the side to move wins after sitting on, or <code>-1</code> if the
+	 *         game state is lost.
+	 */
+	public int getWinningMove() {
+		return winningMove;
+	}
+
+	/**
+	 * Forgets the game states solved.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+	}
+
+	/**
+	 * Solves a game state, finding a winning move if there is one.
+	 *
+	 * @param position The game state, which is not changed.
+	 * @return <code>true</code> if the side to move wins with perfect play, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean solve(ChairGame position) {
+		ChairGame	game = position.clone();
+		nodes = 0;
+		symmetric = isSymmetric(game);
+		boolean	win = isWin(game, 0);
+		winningMove = win ? findWinningMove(game, 0) : -1;
+		solved = game;
+		proofSize = -1;
+		return win;
+	}
+
+	/**
+	 * Decides a game state from the table, searching it if it is not solved there.
+	 *
+	 * @param position The game state.
+	 * @param ply The distance from the root of the solve.
+	 * @return <code>true</code> if the side to move wins, <code>false</code> otherwise.
+	 */
+	private boolean isWin(ChairGame position, int ply) {
+		if (position.isTerminal()) return false;
+		int	slot = probe(key(position));
+		if (slot < 0 || (proofs[slot] != 0 && disproofs[slot] != 0)) {
+			search(position, ply, INFINITY, INFINITY);
+			slot = probe(key(position));
+		}
+		return proofs[slot] == 0;
+	}
+
+	/**
+	 * Returns a move of a won game state leaving the opponent lost, preferring the moves already
+	 * known to be lost in the table.
+	 *
+	 * @param position The game state, which the side to move wins.
+	 * @param ply The distance from the root of the solve.
+	 * @return The index of the chair to sit on.
+	 */
+	private int findWinningMove(ChairGame position, int ply) {
+		int[]	chairs = new int[position.getMoveCount()];
+		int	count = position.moves(chairs);
+		for (int k = 0; k < count; k++) {
+			position.apply(chairs[k]);
+			int	slot = position.isTerminal() ? -1 : probe(key(position));
+			boolean	lost = position.isTerminal() || (slot >= 0 && disproofs[slot] == 0);
+			position.undo();
+			if (lost) return chairs[k];
+		}
+		for (int k = 0; k < count; k++) {
+			position.apply(chairs[k]);
+			boolean	lost = !isWin(position, ply + 1);
+			position.undo();
+			if (lost) return chairs[k];
+		}
+		throw new IllegalStateException("No winning move in a won game state");
+	}
+
+	/**
+	 * Counts the distinct game states of a proof: one winning move of a won game state, every move
+	 * of a lost one.
+	 *
+	 * @param position The game state.
+	 * @param ply The distance from the root of the solve.
+	 * @param seen The keys of the game states counted.
+	 * @return The number of game states counted.
+	 */
+	private long proofSize(ChairGame position, int ply, Set<Long> seen) {
+		if (!seen.add(key(position))) return 0;
+		if (position.isTerminal()) return 1;
+		long	size = 1;
+		if (isWin(position, ply)) {
+			int	chair = findWinningMove(position, ply);
+			position.apply(chair);
+			size += proofSize(position, ply + 1, seen);
+			position.undo();
+		} else {
+			int[]	chairs = new int[position.getMoveCount()];
+			int	count = position.moves(chairs);
+			for (int k = 0; k < count; k++) {
+				position.apply(chairs[k]);
+				size += proofSize(position, ply + 1, seen);
+				position.undo();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Searches a game state until its proof number reaches one threshold or its disproof number
+	 * the other, and stores the numbers in the table. The moves are applied and taken back on the
+	 * game state, which is left as it was.
+	 *
+	 * @param position The game state, which is not over.
+	 * @param ply The distance from the root of the solve.
+	 * @param proofLimit The threshold of the proof number.
+	 * @param disproofLimit The threshold of the disproof number.
+	 */
+	private void search(ChairGame position, int ply, int proofLimit, int disproofLimit) {
+		long	start = nodes++;
+		long	key = key(position);
+		if (ply >= moves.length) {
+			int	length = Math.max(ply + 1, 2 * moves.length);
+			moves = Arrays.copyOf(moves, length);
+			childKeys = Arrays.copyOf(childKeys, length);
+			childProofs = Arrays.copyOf(childProofs, length);
+			childDisproofs = Arrays.copyOf(childDisproofs, length);
+		}
+		int	size = position.size();
+		if (moves[ply] == null || moves[ply].length < size) {
+			moves[ply] = new int[size];
+			childKeys[ply] = new long[size];
+			childProofs[ply] = new int[size];
+			childDisproofs[ply] = new int[size];
+		}
+		int[]	chairs = moves[ply];
+		long[]	children = childKeys[ply];
+		int[]	initialProofs = childProofs[ply], initialDisproofs = childDisproofs[ply];
+		int	count = position.moves(chairs);
+		for (int k = 0; k < count; k++) {
+			position.apply(chairs[k]);
+			if (position.isTerminal()) {
+				// the opponent can not sit, and loses
+				children[k] = 0;
+				initialProofs[k] = INFINITY;
+				initialDisproofs[k] = 0;
+			} else {
+				children[k] = key(position);
+				initialProofs[k] = 1;
+				initialDisproofs[k] = position.getMoveCount();
+			}
+			position.undo();
+		}
+
+		int	proof, disproof;
+		while (true) {
+			// the move with the least disproof number, and the second least
+			int	best = -1, bestProof = 0, bestDisproof = INFINITY, secondDisproof = INFINITY;
+			long	sum = 0;
+			for (int k = 0; k < count; k++) {
+				int	childProof = initialProofs[k], childDisproof = initialDisproofs[k];
+				int	slot = children[k] != 0 ? probe(children[k]) : -1;
+				if (slot >= 0) {
+					childProof = proofs[slot];
+					childDisproof = disproofs[slot];
+				}
+				sum += childProof;
+				if (best < 0 || childDisproof < bestDisproof) {
+					secondDisproof = bestDisproof;
+					best = k;
+					bestProof = childProof;
+					bestDisproof = childDisproof;
+				} else if (childDisproof < secondDisproof) {
+					secondDisproof = childDisproof;
+				}
+			}
+			proof = bestDisproof;
+			// a large sum is not a proof
+			disproof = proof == 0 ? INFINITY : (int) Math.min(sum, INFINITY - 1);
+			if (proof >= proofLimit || disproof >= disproofLimit) break;
+			position.apply(chairs[best]);
+			long	next = Math.max(secondDisproof + 1L, (long) Math.ceil(secondDisproof * (1 + EPSILON)));
+			search(position, ply + 1, (int) Math.min(INFINITY, (long) disproofLimit - disproof + bestProof),
+					(int) Math.min(proofLimit, next));
+			position.undo();
+		}
+		store(key, proof, disproof, nodes - start);
+	}
+
+	/**
+	 * Solves the game states given as arguments: a number of chairs for the empty ring, or the
+	 * chairs of a game state as in {@link BatchAnalysis}, <code>B</code> for boys, <code>G</code> for
+	 * girls and <code>_</code> for empty chairs.
+	 *
+	 * @param args Option <code>-memory</code> (megabytes of the table, default 16), followed by the
+	 *        game states.
+	 */
+	public static void main(String[] args) {
+		int	memory = DEFAULT_SIZE;
+		int	first = 0;
+		if (args.length > 1 && args[0].equals("-memory")) {
+			memory = Integer.parseInt(args[1]);
+			first = 2;
+		}
+		if (first == args.length) {
+			System.out.println("Usage: ProofNumberSolver [-memory megabytes] <number of chairs | chairs like B__G___> ...");
+			return;
+		}
+		ProofNumberSolver	solver = new ProofNumberSolver(memory);
+		for (int i = first; i < args.length; i++) {
+			ChairGame	position;
+			if (args[i].matches("\\d+")) {
+				position = new ChairGame(Integer.parseInt(args[i]));
+			} else {
+				byte[]	chairs = new byte[args[i].length()];
+				for (int c = 0; c < chairs.length; c++) {
+					char	ch = args[i].charAt(c);
+					chairs[c] = (byte) (ch == 'B' ? Identity.PLAYER_A.value() : ch == 'G' ? Identity.PLAYER_B.value()
+							: ch == '_' || ch == '.' ? 0 : 2);
+				}
+				position = BatchAnalysis.position(chairs);
+			}
+			long	start = System.nanoTime();
+			boolean	win = solver.solve(position);
+			long	time = (System.nanoTime() - start) / 1000000;
+			System.out.printf("%s: %s %s, proof of %d game states, %d searched in %d ms%n", BatchAnalysis.format(position),
+					position.getNext() == Identity.PLAYER_A ? "boys" : "girls",
+					win ? "win on chair " + (solver.getWinningMove() + 1) : "lose", solver.getProofSize(), solver.getNodes(), time);
+			solver.clear();
+		}
+	}
+
+	/**
+	 * Returns the key of a game state in the table, the same for its rotations and reflections if
+	 * the game state solved is symmetric.
+	 *
+	 * @param position The game state.
+	 * @return The key, never <code>0</code>.
+	 */
+	private long key(ChairGame position) {
+		long	key = (symmetric ? position.getCanonicalHash() : position.getHash()) ^ (position.size() * SIZE_KEY);
+		return key != 0 ? key : 1;
+	}
+
+	/**
+	 * Returns if a rotation or reflection of the ring maps a game state to itself.
+	 *
+	 * @param position The game state.
+	 * @return <code>true</code> if the game state is symmetric, <code>false</code> otherwise.
+	 */
+	private static boolean isSymmetric(ChairGame position) {
+		if (position.size() > ChairGame.MAX_CHAIRS) return false;
+		for (int t = 1; t < 2 * position.size(); t++) {
+			if (position.getHash(t) == position.getHash()) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Looks up a game state in the table.
+	 *
+	 * @param key The key of the game state.
+	 * @return The index of the entry, or <code>-1</code> if there is none.
+	 */
+	private int probe(long key) {
+		int	first = (int) key & mask;
+		for (int slot = first; slot < first + WAYS; slot++) {
+			if (keys[slot] == key) return slot;
+		}
+		return -1;
+	}
+
+	/**
+	 * Stores the numbers of a game state, in its own entry, or else in an empty one of its slots or
+	 * the one with the least work behind it.
+	 *
+	 * @param key The key of the game state.
+	 * @param proof The proof number.
+	 * @param disproof The disproof number.
+	 * @param work The number of game states searched for the numbers.
+	 */
+	private void store(long key, int proof, int disproof, long work) {
+		int	slot = probe(key);
+		if (slot < 0) {
+			int	first = (int) key & mask;
+			slot = first;
+			for (int k = first; k < first + WAYS && keys[slot] != 0; k++) {
+				if (keys[k] == 0 || works[k] < works[slot]) slot = k;
+			}
+		}
+		keys[slot] = key;
+		proofs[slot] = proof;
+		disproofs[slot] = disproof;
+		works[slot] = (int) Math.min(work, Integer.MAX_VALUE);
+	}
+
+}
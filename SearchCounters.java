@@ -0,0 +1,112 @@
+package chairgame;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of the searches of a machine player. The counters are striped, so the threads of a
+ * parallel search do not contend on them, and cheap enough to be always on. The searches and their
+ * iterations are also recorded as Flight Recorder events when those are enabled.
+ */
+final class SearchCounters {
+
+	final LongAdder	nodes = new LongAdder();
+
+	final LongAdder	evaluations = new LongAdder();
+
+	final LongAdder	terminals = new LongAdder();
+
+	final LongAdder	cutoffs = new LongAdder();
+
+	final LongAdder	tableHits = new LongAdder();
+
+	/**
+	 * The value of {@link System#nanoTime()} the current search and iteration started at.
+	 */
+	private long	start, iterationStart;
+
+	/**
+	 * The number of game states visited before the current iteration.
+	 */
+	private long	iterationNodes;
+
+	/**
+	 * The time each iteration of the current search took.
+	 */
+	private long[]	depthTimes = new long[0];
+
+	private SearchEvent	event;
+
+	private SearchIterationEvent	iterationEvent;
+
+	/**
+	 * Resets the counters for a new search.
+	 */
+	void start() {
+		nodes.reset();
+		evaluations.reset();
+		terminals.reset();
+		cutoffs.reset();
+		tableHits.reset();
+		depthTimes = new long[0];
+		event = new SearchEvent();
+		event.begin();
+		start = System.nanoTime();
+	}
+
+	/**
+	 * Starts timing an iteration of the current search.
+	 */
+	void startIteration() {
+		iterationEvent = new SearchIterationEvent();
+		iterationEvent.begin();
+		iterationNodes = nodes.sum();
+		iterationStart = System.nanoTime();
+	}
+
+	/**
+	 * Finishes timing an iteration of the current search.
+	 *
+	 * @param depth The depth of the iteration.
+	 * @param completed <code>false</code> if the iteration ran out of time.
+	 */
+	void endIteration(int depth, boolean completed) {
+		depthTimes = Arrays.copyOf(depthTimes, depthTimes.length + 1);
+		depthTimes[depthTimes.length - 1] = System.nanoTime() - iterationStart;
+		iterationEvent.end();
+		if (iterationEvent.shouldCommit()) {
+			iterationEvent.depth = depth;
+			iterationEvent.nodes = nodes.sum() - iterationNodes;
+			iterationEvent.completed = completed;
+			iterationEvent.commit();
+		}
+		iterationEvent = null;
+	}
+
+	/**
+	 * Finishes the current search.
+	 *
+	 * @param player The name of the searching player.
+	 * @param depthReached The depth of the last completed iteration.
+	 * @return The statistics of the search.
+	 */
+	SearchStatistics finish(String player, int depthReached) {
+		SearchStatistics	statistics = new SearchStatistics(nodes.sum(), evaluations.sum(), terminals.sum(),
+				cutoffs.sum(), tableHits.sum(), depthReached, depthTimes, System.nanoTime() - start);
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = player;
+			event.depthReached = depthReached;
+			event.nodes = statistics.getNodes();
+			event.evaluations = statistics.getEvaluations();
+			event.terminals = statistics.getTerminals();
+			event.cutoffs = statistics.getCutoffs();
+			event.tableHits = statistics.getTableHits();
+			event.nodesPerSecond = statistics.getNodesPerSecond();
+			event.commit();
+		}
+		event = null;
+		return statistics;
+	}
+
+}
@@ -0,0 +1,47 @@
+package chairgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a machine player choosing a move.
+ */
+@Name("chairgame.Search")
+@Label("Search")
+@Category({"Chairgame", "Search"})
+@Description("A machine player choosing a move")
+class SearchEvent extends Event {
+
+	@Label("Player")
+	String	player;
+
+	@Label("Depth Reached")
+	int	depthReached;
+
+	@Label("Nodes")
+	@Description("Game states visited")
+	long	nodes;
+
+	@Label("Evaluations")
+	@Description("Game states scored by the evaluation function")
+	long	evaluations;
+
+	@Label("Terminals")
+	@Description("Game states where the game has ended")
+	long	terminals;
+
+	@Label("Cutoffs")
+	@Description("Game states whose remaining moves were pruned")
+	long	cutoffs;
+
+	@Label("Table Hits")
+	@Description("Game states scored by the transposition table")
+	long	tableHits;
+
+	@Label("Nodes per Second")
+	double	nodesPerSecond;
+
+}
@@ -0,0 +1,29 @@
+package chairgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of one iteration of a search, to a fixed depth.
+ */
+@Name("chairgame.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chairgame", "Search"})
+@Description("An iteration of a search to a fixed depth")
+class SearchIterationEvent extends Event {
+
+	@Label("Depth")
+	int	depth;
+
+	@Label("Nodes")
+	@Description("Game states visited")
+	long	nodes;
+
+	@Label("Completed")
+	@Description("False if the iteration ran out of time")
+	boolean	completed;
+
+}
@@ -0,0 +1,143 @@
+package chairgame;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The statistics of the searches of a machine player: the totals of every search and the last
+ * search. A monitor can be registered with the platform MBean server to be watched through JMX.
+ */
+public class SearchMonitor implements SearchMonitorMXBean {
+
+	private long	searches, nodes, evaluations, terminals, cutoffs, tableHits, time;
+
+	/**
+	 * The statistics of the last search, or <code>null</code>.
+	 */
+	private SearchStatistics	last;
+
+	/**
+	 * The name the monitor is registered with, or <code>null</code>.
+	 */
+	private ObjectName	objectName;
+
+	/**
+	 * Adds the statistics of a search.
+	 *
+	 * @param statistics The statistics of the search.
+	 */
+	public synchronized void record(SearchStatistics statistics) {
+		searches++;
+		nodes += statistics.getNodes();
+		evaluations += statistics.getEvaluations();
+		terminals += statistics.getTerminals();
+		cutoffs += statistics.getCutoffs();
+		tableHits += statistics.getTableHits();
+		time += statistics.getTime();
+		last = statistics;
+	}
+
+	/**
+	 * Returns the statistics of the last search.
+	 *
+	 * @return The statistics, or <code>null</code> if there was no search.
+	 */
+	public synchronized SearchStatistics getLast() {
+		return last;
+	}
+
+	public synchronized long getSearches() {
+		return searches;
+	}
+
+	public synchronized long getNodes() {
+		return nodes;
+	}
+
+	public synchronized long getEvaluations() {
+		return evaluations;
+	}
+
+	public synchronized long getTerminals() {
+		return terminals;
+	}
+
+	public synchronized long getCutoffs() {
+		return cutoffs;
+	}
+
+	public synchronized long getTableHits() {
+		return tableHits;
+	}
+
+	public synchronized long getTimeMillis() {
+		return time / 1000000;
+	}
+
+	public synchronized double getNodesPerSecond() {
+		return time > 0 ? nodes * 1e9 / time : 0;
+	}
+
+	public synchronized long getLastNodes() {
+		return last != null ? last.getNodes() : 0;
+	}
+
+	public synchronized int getLastDepthReached() {
+		return last != null ? last.getDepthReached() : 0;
+	}
+
+	public synchronized long getLastTimeMillis() {
+		return last != null ? last.getTime() / 1000000 : 0;
+	}
+
+	public synchronized double getLastNodesPerSecond() {
+		return last != null ? last.getNodesPerSecond() : 0;
+	}
+
+	public synchronized double getLastBranchingFactor() {
+		return last != null ? last.getBranchingFactor() : 0;
+	}
+
+	public synchronized double[] getLastDepthTimesMillis() {
+		double[]	millis = new double[last != null ? last.getIterations() : 0];
+		for (int i = 0; i < millis.length; i++) {
+			millis[i] = last.getDepthTime(i + 1) / 1e6;
+		}
+		return millis;
+	}
+
+	public synchronized void reset() {
+		searches = nodes = evaluations = terminals = cutoffs = tableHits = time = 0;
+		last = null;
+	}
+
+	/**
+	 * Registers the monitor with the platform MBean server.
+	 *
+	 * @param name The name of the machine player, unique among the registered monitors.
+	 * @return The object name the monitor is registered with.
+	 * @throws JMException If the monitor can not be registered.
+	 */
+	public synchronized ObjectName register(String name) throws JMException {
+		unregister();
+		ObjectName	objectName = new ObjectName("chairgame:type=Search,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		this.objectName = objectName;
+		return objectName;
+	}
+
+	/**
+	 * Removes the monitor from the platform MBean server, if it was registered.
+	 *
+	 * @throws JMException If the monitor can not be unregistered.
+	 */
+	public synchronized void unregister() throws JMException {
+		if (objectName != null) {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			objectName = null;
+		}
+	}
+
+}
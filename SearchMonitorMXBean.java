@@ -0,0 +1,83 @@
+package chairgame;
+
+/**
+ * Management interface of the search statistics of a machine player, exported through JMX.
+ */
+public interface SearchMonitorMXBean {
+
+	/**
+	 * @return The number of moves chosen.
+	 */
+	public long getSearches();
+
+	/**
+	 * @return The number of game states visited by every search.
+	 */
+	public long getNodes();
+
+	/**
+	 * @return The number of game states scored by the evaluation function in every search.
+	 */
+	public long getEvaluations();
+
+	/**
+	 * @return The number of game states where the game has ended visited by every search.
+	 */
+	public long getTerminals();
+
+	/**
+	 * @return The number of game states whose remaining moves were pruned in every search.
+	 */
+	public long getCutoffs();
+
+	/**
+	 * @return The number of game states scored by the transposition table in every search.
+	 */
+	public long getTableHits();
+
+	/**
+	 * @return The time every search took in milliseconds.
+	 */
+	public long getTimeMillis();
+
+	/**
+	 * @return The number of game states visited per second over every search.
+	 */
+	public double getNodesPerSecond();
+
+	/**
+	 * @return The number of game states visited by the last search.
+	 */
+	public long getLastNodes();
+
+	/**
+	 * @return The depth reached by the last search.
+	 */
+	public int getLastDepthReached();
+
+	/**
+	 * @return The time the last search took in milliseconds.
+	 */
+	public long getLastTimeMillis();
+
+	/**
+	 * @return The number of game states visited per second by the last search.
+	 */
+	public double getLastNodesPerSecond();
+
+	/**
+	 * @return The branching factor of the last search.
+	 */
+	public double getLastBranchingFactor();
+
+	/**
+	 * @return The time each iteration of the last search took in milliseconds, by depth minus one.
+	 */
+	public double[] getLastDepthTimesMillis();
+
+	/**
+	 * Resets the statistics.
+	 */
+	public void reset();
+
+}
@@ -0,0 +1,63 @@
+package chairgame;
+
+/**
+ * The move a machine player chose, with its score and the statistics of the search choosing it.
+ */
+public final class SearchResult {
+
+	/**
+	 * The move chosen.
+	 */
+	private final Operator	move;
+
+	/**
+	 * The score of the move, from the view of the player.
+	 */
+	private final int	score;
+
+	/**
+	 * What the search did.
+	 */
+	private final SearchStatistics	statistics;
+
+	/**
+	 * Constructor to create the result of a search.
+	 *
+	 * @param move The move chosen.
+	 * @param score The score of the move, from the view of the player.
+	 * @param statistics What the search did.
+	 */
+	public SearchResult(Operator move, int score, SearchStatistics statistics) {
+		this.move = move;
+		this.score = score;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Returns the move chosen.
+	 *
+	 * @return The move.
+	 */
+	public Operator getMove() {
+		return move;
+	}
+
+	/**
+	 * Returns the score of the move, from the view of the player.
+	 *
+	 * @return The score.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns what the search did.
+	 *
+	 * @return The statistics of the search.
+	 */
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+
+}
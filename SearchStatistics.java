@@ -0,0 +1,173 @@
+package chairgame;
+
+import java.util.Arrays;
+
+/**
+ * What a machine player did to choose one move: the game states it visited and how their search
+ * ended, the depth it reached and the time it took.
+ */
+public final class SearchStatistics {
+
+	/**
+	 * The number of game states visited below the root.
+	 */
+	private final long	nodes;
+
+	/**
+	 * The number of game states scored by the evaluation function at the depth limit.
+	 */
+	private final long	evaluations;
+
+	/**
+	 * The number of visited game states where the game has ended.
+	 */
+	private final long	terminals;
+
+	/**
+	 * The number of game states whose remaining moves were pruned by alpha-beta.
+	 */
+	private final long	cutoffs;
+
+	/**
+	 * The number of game states scored by the transposition table.
+	 */
+	private final long	tableHits;
+
+	/**
+	 * The depth of the last completed iteration.
+	 */
+	private final int	depthReached;
+
+	/**
+	 * The time each started iteration took in nanoseconds, by depth minus one.
+	 */
+	private final long[]	depthTimes;
+
+	/**
+	 * The time the whole search took in nanoseconds.
+	 */
+	private final long	time;
+
+	/**
+	 * Constructor to create the statistics of a search.
+	 *
+	 * @param nodes The number of game states visited below the root.
+	 * @param evaluations The number of game states scored by the evaluation function.
+	 * @param terminals The number of visited game states where the game has ended.
+	 * @param cutoffs The number of game states whose remaining moves were pruned.
+	 * @param tableHits The number of game states scored by the transposition table.
+	 * @param depthReached The depth of the last completed iteration.
+	 * @param depthTimes The time each started iteration took in nanoseconds, by depth minus one.
+	 * @param time The time the whole search took in nanoseconds.
+	 */
+	public SearchStatistics(long nodes, long evaluations, long terminals, long cutoffs, long tableHits,
+			int depthReached, long[] depthTimes, long time) {
+		this.nodes = nodes;
+		this.evaluations = evaluations;
+		this.terminals = terminals;
+		this.cutoffs = cutoffs;
+		this.tableHits = tableHits;
+		this.depthReached = depthReached;
+		this.depthTimes = depthTimes.clone();
+		this.time = time;
+	}
+
+	/**
+	 * @return The number of game states visited below the root.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return The number of game states scored by the evaluation function at the depth limit.
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * @return The number of visited game states where the game has ended.
+	 */
+	public long getTerminals() {
+		return terminals;
+	}
+
+	/**
+	 * @return The number of game states whose remaining moves were pruned by alpha-beta.
+	 */
+	public long getCutoffs() {
+		return cutoffs;
+	}
+
+	/**
+	 * @return The number of game states scored by the transposition table.
+	 */
+	public long getTableHits() {
+		return tableHits;
+	}
+
+	/**
+	 * @return The depth of the last completed iteration.
+	 */
+	public int getDepthReached() {
+		return depthReached;
+	}
+
+	/**
+	 * Returns the number of iterations started, the last one may have run out of time.
+	 *
+	 * @return The number of iterations.
+	 */
+	public int getIterations() {
+		return depthTimes.length;
+	}
+
+	/**
+	 * Returns the time an iteration took.
+	 *
+	 * @param depth The depth of the iteration, from 1.
+	 * @return The time in nanoseconds.
+	 */
+	public long getDepthTime(int depth) {
+		return depthTimes[depth - 1];
+	}
+
+	/**
+	 * @return The time the search took in nanoseconds.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return The number of game states visited per second.
+	 */
+	public double getNodesPerSecond() {
+		return time > 0 ? nodes * 1e9 / time : 0;
+	}
+
+	/**
+	 * Returns the average number of moves searched from a game state which was not scored without
+	 * its moves, the roots of the iterations included.
+	 *
+	 * @return The branching factor.
+	 */
+	public double getBranchingFactor() {
+		long	expanded = nodes - evaluations - terminals - tableHits + depthTimes.length;
+		return expanded > 0 ? (double) nodes / expanded : 0;
+	}
+
+	@Override
+	public String toString() {
+		long[]	millis = new long[depthTimes.length];
+		for (int i = 0; i < millis.length; i++) {
+			millis[i] = depthTimes[i] / 1000000;
+		}
+		return String.format("depth %d, %d nodes in %d ms (%.0f nodes/s), %d evaluations, %d terminals, "
+				+ "%d cutoffs, %d table hits, branching factor %.2f, iterations %s ms", depthReached, nodes,
+				time / 1000000, getNodesPerSecond(), evaluations, terminals, cutoffs, tableHits,
+				getBranchingFactor(), Arrays.toString(millis));
+	}
+
+}
@@ -0,0 +1,281 @@
+package chairgame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exact solver of the chair game adding up the values of the independent parts of the ring.
+ *
+ * Once a chair is taken, the empty chairs of the ring form runs between two figures, and a move in
+ * one run does not change what can be played in the others. The game is the sum of the runs in
+ * the sense of combinatorial game theory, PLAYER_A being Left and PLAYER_B Right, and the value of
+ * a run only depends on its length and the figures at its ends. The values of the runs are
+ * computed once as {@link CanonicalForms} and remembered, and the outcome of a sum is searched over
+ * the values instead of the chairs, where equal runs, runs cancelling each other and runs without
+ * moves drop out.
+ *
+ * The canonical forms of longer runs grow fast: a run of 20 chairs takes seconds, and every further
+ * chair adds about half of the time. Rings of hundreds of chairs are solved once their runs are
+ * short, however many of them there are, but not from the empty ring. The solver is not
+ * thread-safe.
+ *
+ * The solver keeps everything it computes: the values of the runs, which the identifiers it
+ * returns refer to, and the outcome of every sum searched, which grows with the game states
+ * decided. The outcomes can be dropped with {@link #clear()}.
+ */
+public class SegmentSolver {
+
+	/**
+	 * The values of the games.
+	 */
+	private final CanonicalForms	forms = new CanonicalForms();
+
+	/**
+	 * The values of the runs with PLAYER_A at the left end, by length and right end.
+	 */
+	private final Map<Integer, Integer>	segments = new HashMap<Integer, Integer>();
+
+	/**
+	 * The outcomes of the sums searched.
+	 */
+	private final Map<Sum, Boolean>	outcomes = new HashMap<Sum, Boolean>();
+
+	/**
+	 * Returns the values of the games, the identifiers returned by the solver refer to them.
+	 *
+	 * @return The canonical forms.
+	 */
+	public CanonicalForms getForms() {
+		return forms;
+	}
+
+	/**
+	 * Returns the value of a run of empty chairs.
+	 *
+	 * @param left The player sitting at the left end of the run.
+	 * @param length The number of empty chairs.
+	 * @param right The player sitting at the right end of the run.
+	 * @return The value of the run.
+	 */
+	public int segment(Identity left, int length, Identity right) {
+		if (left == Identity.NONE || right == Identity.NONE) {
+			throw new IllegalArgumentException("A run has to end at a figure");
+		}
+		if (left == Identity.PLAYER_B && right == Identity.PLAYER_B) {
+			return forms.negate(segment(Identity.PLAYER_A, length, Identity.PLAYER_A));
+		}
+		// a run is the same seen from its other end
+		return segment(length, left == Identity.PLAYER_A && right == Identity.PLAYER_A);
+	}
+
+	/**
+	 * Returns the value of a run with PLAYER_A at its left end.
+	 *
+	 * @param length The number of empty chairs.
+	 * @param a If PLAYER_A or PLAYER_B sits at the right end.
+	 */
+	private int segment(int length, boolean a) {
+		if (length == 0) return CanonicalForms.ZERO;
+		int	key = 2 * length + (a ? 1 : 0);
+		Integer	value = segments.get(key);
+		if (value == null) {
+			Identity	right = a ? Identity.PLAYER_A : Identity.PLAYER_B;
+			int[]	l = new int[length], r = new int[length];
+			int	nl = 0, nr = 0;
+			for (int c = 1; c <= length; c++) {
+				if (c < length || a) {
+					l[nl++] = forms.add(segment(Identity.PLAYER_A, c - 1, Identity.PLAYER_A),
+							segment(Identity.PLAYER_A, length - c, right));
+				}
+				if (c > 1 && (c < length || !a)) {
+					r[nr++] = forms.add(segment(Identity.PLAYER_A, c - 1, Identity.PLAYER_B),
+							segment(Identity.PLAYER_B, length - c, right));
+				}
+			}
+			value = forms.game(Arrays.copyOf(l, nl), Arrays.copyOf(r, nr));
+			segments.put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the values of the parts of a game state: the runs between the figures, or the whole
+	 * ring if it is empty.
+	 *
+	 * @param position The game state.
+	 * @return The values of the parts, which add up to the value of the game state.
+	 */
+	public int[] components(ChairGame position) {
+		int	size = position.size();
+		int[]	taken = new int[size];
+		int	count = 0;
+		for (int i = 0; i < size; i++) {
+			if (position.get(i) != 0) taken[count++] = i;
+		}
+		if (count == 0) {
+			int	left = segment(Identity.PLAYER_A, size - 1, Identity.PLAYER_A);
+			int	right = segment(Identity.PLAYER_B, size - 1, Identity.PLAYER_B);
+			return new int[] {forms.game(new int[] {left}, new int[] {right})};
+		}
+		int[]	components = new int[count];
+		for (int k = 0; k < count; k++) {
+			int	from = taken[k], to = taken[(k + 1) % count];
+			// a single figure closes the ring on itself
+			int	length = (to - from - 1 + size) % size;
+			components[k] = segment(identity(position.get(from)), length, identity(position.get(to)));
+		}
+		return components;
+	}
+
+	/**
+	 * Returns the value of a game state. Adding up the values of the parts can take much longer
+	 * than deciding the game state with {@link #isWin(ChairGame)}.
+	 *
+	 * @param position The game state.
+	 * @return The value.
+	 */
+	public int value(ChairGame position) {
+		int	value = CanonicalForms.ZERO;
+		for (int component : components(position)) {
+			value = forms.add(value, component);
+		}
+		return value;
+	}
+
+	/**
+	 * Decides a game state.
+	 *
+	 * @param position The game state.
+	 * @return <code>true</code> if the player to move wins with perfect play, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isWin(ChairGame position) {
+		return wins(components(position), position.getNext() == Identity.PLAYER_A);
+	}
+
+	/**
+	 * Forgets the outcomes of the sums searched. The values of the runs are kept, so the
+	 * identifiers returned before stay valid.
+	 */
+	public void clear() {
+		outcomes.clear();
+	}
+
+	/**
+	 * Returns a winning move of a game state.
+	 *
+	 * @param position The game state.
+	 * @return The index of a chair the player to move wins after sitting on, or <code>-1</code> if
+	 *         the game state is lost.
+	 */
+	public int getWinningMove(ChairGame position) {
+		boolean	a = position.getNext() == Identity.PLAYER_A;
+		ChairGame	child = position.clone();
+		int[]	chairs = new int[position.getMoveCount()];
+		int	count = position.moves(chairs);
+		for (int k = 0; k < count; k++) {
+			int	chair = chairs[k];
+			child.apply(chair);
+			boolean	win = !wins(components(child), !a);
+			child.undo();
+			if (win) return chair;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns if the player to move wins a sum of games.
+	 *
+	 * @param games The values of the games, the array may be changed.
+	 * @param a If Left or Right moves.
+	 */
+	private boolean wins(int[] games, boolean a) {
+		games = simplify(games);
+		if (games.length == 0) return false;
+		if (games.length == 1) return a ? forms.leftWinsFirst(games[0]) : forms.rightWinsFirst(games[0]);
+		Sum	sum = new Sum(games, a);
+		Boolean	result = outcomes.get(sum);
+		if (result == null) {
+			result = Boolean.FALSE;
+			for (int i = 0; i < games.length && !result; i++) {
+				if (i > 0 && games[i] == games[i - 1]) continue;
+				for (int option : a ? forms.getLeft(games[i]) : forms.getRight(games[i])) {
+					int[]	next = games.clone();
+					next[i] = option;
+					if (!wins(next, !a)) {
+						result = Boolean.TRUE;
+						break;
+					}
+				}
+			}
+			outcomes.put(sum, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the games which do not change the outcome of a sum: games without moves, and pairs of
+	 * a game and its negative. The numbers are added up into one game.
+	 *
+	 * @return The rest of the games, sorted.
+	 */
+	private int[] simplify(int[] games) {
+		int	number = CanonicalForms.ZERO;
+		int	count = 0;
+		for (int g : games) {
+			if (forms.isNumber(g)) {
+				number = forms.add(number, g);
+			} else {
+				games[count++] = g;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			int	negative = forms.negate(games[i]);
+			for (int j = i + 1; j < count; j++) {
+				if (games[j] == negative) {
+					games[j] = games[--count];
+					games[i--] = games[--count];
+					break;
+				}
+			}
+		}
+		if (number != CanonicalForms.ZERO) games[count++] = number;
+		int[]	result = Arrays.copyOf(games, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private static Identity identity(int value) {
+		return value == Identity.PLAYER_A.value() ? Identity.PLAYER_A : Identity.PLAYER_B;
+	}
+
+	/**
+	 * A sorted sum of games with the player to move, as a key of the outcomes.
+	 */
+	private static final class Sum {
+
+		private final int[]	games;
+
+		private final boolean	a;
+
+		private final int	hash;
+
+		Sum(int[] games, boolean a) {
+			this.games = games;
+			this.a = a;
+			this.hash = 2 * Arrays.hashCode(games) + (a ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Sum && ((Sum) o).a == a && Arrays.equals(((Sum) o).games, games);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package chairgame;
+
+/**
+ * Machine player making perfect moves found by a {@link SegmentSolver}.
+ *
+ * In a won game state it chooses a winning move, in a lost one the lowest free chair it may sit
+ * on.
+ */
+public class SegmentSolverPlayer extends PlayerImp {
+
+	/**
+	 * The default name of the machine player.
+	 */
+	private static final String	NAME = "Computer";
+
+	/**
+	 * The solver remembering the values of the runs between games.
+	 */
+	private final SegmentSolver	solver = new SegmentSolver();
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 */
+	public SegmentSolverPlayer(Identity identity) {
+		this(NAME, identity);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 */
+	public SegmentSolverPlayer(String name, Identity identity) {
+		super(name, identity);
+	}
+
+	/**
+	 * @return <code>false</code> as the machine player is not interactive
+	 */
+	public boolean isInteractive() {
+		return false;
+	}
+
+	/**
+	 * Returns the solver of the machine player.
+	 *
+	 * @return The solver.
+	 */
+	public SegmentSolver getSolver() {
+		return solver;
+	}
+
+	/**
+	 * Solves the game state to find the best move for the player.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @return A winning move, or the first possible one if the game state is lost.
+	 */
+	public Operator getOperator(Position position) throws GameException {
+		if (position.isTerminal() || position.getNext() != identity) {
+			throw new GameException();
+		}
+		ChairGame	game = (ChairGame) position;
+		int	chair = solver.getWinningMove(game);
+		if (chair < 0) {
+			chair = game.operators().get(0).getI();
+		}
+		return Sit.of(chair);
+	}
+
+}
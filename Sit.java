@@ -5,12 +5,40 @@ package chairgame;
  */
 
 public class Sit extends OperatorImp{
+	/**
+	 * The number of chairs with a shared instance, enough for the rings played on the console.
+	 */
+	private static final int	CACHE_SIZE = 1024;
+
+	/**
+	 * The shared instances returned by {@link #of(int)}.
+	 */
+	private static final Sit[]	INSTANCES = new Sit[CACHE_SIZE];
+
+	static {
+		for (int i = 0; i < INSTANCES.length; i++) {
+			INSTANCES[i] = new Interned(i);
+		}
+	}
+
 	protected int	i;
 	
 	
 	public Sit(int i) {
 		this.i = i;
 	}
+
+	/**
+	 * Returns the operator sitting on a given chair. For the first chairs of a ring the same instance
+	 * is returned every time, so move lists do not allocate operators. The shared instances can
+	 * not be changed by {@link #setI(int)}.
+	 *
+	 * @param i The index of the chair.
+	 * @return The operator.
+	 */
+	public static Sit of(int i) {
+		return i >= 0 && i < INSTANCES.length ? INSTANCES[i] : new Sit(i);
+	}
 	
 	public int getI() {
 		return i;
@@ -40,8 +68,33 @@ public class Sit extends OperatorImp{
 		return OperatorImp.isApplicableTo(this, pos);
 	}	
 	
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Sit && ((Sit) o).i == i;
+	}
+
+	@Override
+	public int hashCode() {
+		return i;
+	}
+
 	@Override
 	public String toString() {
 		return new StringBuilder().append("(").append(i+1).append(")").toString();
 	}
+
+	/**
+	 * Shared operator which can not be changed.
+	 */
+	private static final class Interned extends Sit {
+
+		Interned(int i) {
+			super(i);
+		}
+
+		@Override
+		public void setI(int i) {
+			throw new UnsupportedOperationException("Shared operators can not be changed");
+		}
+	}
 }
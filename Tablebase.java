@@ -0,0 +1,457 @@
+package chairgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * The solved game: the outcome and the length of the rest of the game with perfect play for every
+ * game state of a ring, for the side to move.
+ *
+ * Only the placements a game can reach are indexed: PLAYER_A and PLAYER_B never sit next to each
+ * other, and PLAYER_A has as many figures as PLAYER_B or one more, PLAYER_A starting. They are
+ * ranked by their number of figures, then by their chairs read as the digits of a base 3 number,
+ * chair 0 being the highest digit: <code>0</code> for an empty chair, <code>1</code> for PLAYER_A
+ * and <code>2</code> for PLAYER_B. The next player follows from the number of figures. The table
+ * has one byte per reachable placement, about 400 times fewer than the base 3 numbers of 19 chairs.
+ *
+ * The table is solved backwards, from the full rings to the empty one, as every move adds a
+ * figure. The game states with the same number of figures are solved in parallel. A table written
+ * to a file is memory-mapped when opened, so it is ready without being read.
+ */
+public class Tablebase {
+
+	/**
+	 * Flag of an entry where the side to move wins.
+	 */
+	public static final int	WIN = 0x80;
+
+	/**
+	 * Flag of an entry where the side to move loses.
+	 */
+	public static final int	LOSS = 0x40;
+
+	/**
+	 * Mask of the number of moves left in the game of an entry.
+	 */
+	public static final int	DISTANCE = 0x3f;
+
+	/**
+	 * The largest ring the table of which can be indexed.
+	 */
+	public static final int	MAX_CHAIRS = 26;
+
+	/**
+	 * The first bytes of a tablebase file.
+	 */
+	private static final int	MAGIC = 0x43475442;
+
+	/**
+	 * The version of the file format.
+	 */
+	private static final int	VERSION = 2;
+
+	/**
+	 * The length of the file header in bytes.
+	 */
+	private static final int	HEADER_SIZE = 16;
+
+	/**
+	 * The number of indices solved by one task.
+	 */
+	private static final int	CHUNK = 1 << 16;
+
+	/**
+	 * The number of chairs in the ring.
+	 */
+	private final int	size;
+
+	/**
+	 * The entries, indexed by game state.
+	 */
+	private final ByteBuffer	table;
+
+	/**
+	 * The ranking of the placements of the ring.
+	 */
+	private final Ranking	ranking;
+
+	private Tablebase(int size, ByteBuffer table) {
+		this.size = size;
+		this.table = table;
+		this.ranking = new Ranking(size);
+	}
+
+	/**
+	 * Returns the number of chairs in the ring.
+	 *
+	 * @return The number of chairs.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of game states in the table of a ring.
+	 *
+	 * @param size The number of chairs, at most {@link #MAX_CHAIRS}.
+	 * @return The number of placements a game can reach.
+	 */
+	public static int entries(int size) {
+		if (size < 1 || size > MAX_CHAIRS) {
+			throw new IllegalArgumentException("Invalid number of chairs: " + size);
+		}
+		return (int) new Ranking(size).offsets[size + 1];
+	}
+
+	/**
+	 * Returns the index of a game state.
+	 *
+	 * @param position The game state, which has to have the ring size of the table.
+	 * @return The index of the game state, <code>-1</code> if no game can reach its placement.
+	 */
+	public int index(ChairGame position) {
+		return ranking.rank(position.getMask(Identity.PLAYER_A), position.getMask(Identity.PLAYER_B));
+	}
+
+	/**
+	 * Returns the game state of an index.
+	 *
+	 * @param index The index of the game state.
+	 * @return The game state, the next player following from the number of figures.
+	 */
+	public ChairGame position(int index) {
+		if (index < 0 || index >= ranking.offsets[size + 1]) {
+			throw new IllegalArgumentException("Invalid index " + index + " of " + size + " chairs");
+		}
+		long[]	masks = new long[2];
+		ranking.unrank(index, masks);
+		long	digits = 0;
+		for (int chair = size - 1; chair >= 0; chair--) {
+			digits = digits * 3 + Ranking.digit(masks[0], masks[1], chair);
+		}
+		return ChairGame.fromIndex(digits, size);
+	}
+
+	/**
+	 * Returns the entry of a game state.
+	 *
+	 * @param index The index of the game state.
+	 * @return The entry.
+	 */
+	public int probe(int index) {
+		return table.get(index) & 0xff;
+	}
+
+	/**
+	 * Returns the entry of a game state.
+	 *
+	 * @param position The game state.
+	 * @return The entry, <code>0</code> if the game state is not in the table.
+	 */
+	public int probe(ChairGame position) {
+		if (position.size() != size) return 0;
+		int	index = index(position);
+		int	figures = Long.bitCount(position.getMask(Identity.PLAYER_A) | position.getMask(Identity.PLAYER_B));
+		Identity	next = figures % 2 == 0 ? Identity.PLAYER_A : Identity.PLAYER_B;
+		return index >= 0 && next == position.getNext() ? probe(index) : 0;
+	}
+
+	/**
+	 * Returns if an entry is won by the side to move.
+	 *
+	 * @param entry The entry.
+	 * @return <code>true</code> for a win, <code>false</code> for a loss or an unknown game state.
+	 */
+	public static boolean isWin(int entry) {
+		return (entry & WIN) != 0;
+	}
+
+	/**
+	 * Returns the number of moves left in the game of an entry with perfect play: the winner
+	 * finishes as fast as possible, the loser holds out as long as possible.
+	 *
+	 * @param entry The entry.
+	 * @return The number of moves left.
+	 */
+	public static int distance(int entry) {
+		return entry & DISTANCE;
+	}
+
+	/**
+	 * Solves every game state of a ring.
+	 *
+	 * @param size The number of chairs, at most {@link #MAX_CHAIRS}.
+	 * @return The solved table, held in memory.
+	 */
+	public static Tablebase generate(final int size) {
+		if (size < 1 || size > MAX_CHAIRS) {
+			throw new IllegalArgumentException("Invalid number of chairs: " + size);
+		}
+		final Ranking	ranking = new Ranking(size);
+		final byte[]	table = new byte[(int) ranking.offsets[size + 1]];
+		for (int figures = size; figures >= 0; figures--) {
+			final int	from = (int) ranking.offsets[figures], to = (int) ranking.offsets[figures + 1];
+			final int	chunks = (to - from + CHUNK - 1) / CHUNK;
+			IntStream.range(0, chunks).parallel().forEach(chunk ->
+					solve(size, ranking, table, from + chunk * CHUNK, Math.min(to, from + (chunk + 1) * CHUNK)));
+		}
+		return new Tablebase(size, ByteBuffer.wrap(table));
+	}
+
+	/**
+	 * Solves the game states in a range of indices with the same number of figures, the ones with
+	 * one more figure having been solved.
+	 */
+	private static void solve(int size, Ranking ranking, byte[] table, int from, int to) {
+		long	full = (1L << size) - 1;
+		long[]	masks = new long[2];
+		for (int index = from; index < to; index++) {
+			ranking.unrank(index, masks);
+			long	a = masks[0], b = masks[1];
+			boolean	nextA = Long.bitCount(a) == Long.bitCount(b);
+			long	opponent = nextA ? b : a;
+			long	moves = full & ~(a | b) & ~(rotateLeft(opponent, size, full) | rotateRight(opponent, size, full));
+			int	win = Integer.MAX_VALUE, loss = -1;
+			for (; moves != 0; moves &= moves - 1) {
+				long	bit = moves & -moves;
+				int	entry = table[nextA ? ranking.rank(a | bit, b) : ranking.rank(a, b | bit)] & 0xff;
+				if (isWin(entry)) {
+					loss = Math.max(loss, distance(entry));
+				} else {
+					win = Math.min(win, distance(entry));
+				}
+			}
+			table[index] = (byte) (win != Integer.MAX_VALUE ? WIN | (win + 1) : LOSS | (loss + 1));
+		}
+	}
+
+	/**
+	 * Writes the table to a file.
+	 *
+	 * @param file The file to write.
+	 * @throws IOException If the file can not be written.
+	 */
+	public void write(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer	header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(0).flip();
+			while (header.hasRemaining()) channel.write(header);
+			ByteBuffer	data = table.duplicate();
+			data.clear();
+			while (data.hasRemaining()) channel.write(data);
+		}
+	}
+
+	/**
+	 * Opens a table written to a file, mapping it into memory.
+	 *
+	 * @param file The file to read.
+	 * @return The table.
+	 * @throws IOException If the file can not be read or it is not a tablebase.
+	 */
+	public static Tablebase open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer	header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0) {}
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new IOException("Not a tablebase file: " + file);
+			}
+			int	size = header.getInt();
+			if (size < 1 || size > MAX_CHAIRS || channel.size() != HEADER_SIZE + (long) entries(size)) {
+				throw new IOException("Corrupt tablebase file: " + file);
+			}
+			return new Tablebase(size, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, entries(size)));
+		}
+	}
+
+	private static long rotateLeft(long mask, int size, long full) {
+		return ((mask << 1) | (mask >>> (size - 1))) & full;
+	}
+
+	private static long rotateRight(long mask, int size, long full) {
+		return ((mask >>> 1) | (mask << (size - 1))) & full;
+	}
+
+	/**
+	 * The ranking of the placements a game can reach on a ring. The rank of a placement is the
+	 * number of placements with fewer figures, plus the number of placements with as many figures
+	 * which are smaller as base 3 numbers. These are counted chair by chair from the number of ways
+	 * to fill the rest of the ring, which are counted in advance.
+	 */
+	private static final class Ranking {
+
+		private final int	size;
+
+		/**
+		 * The maximum numbers of figures of PLAYER_A and PLAYER_B, plus one.
+		 */
+		private final int	countsA, countsB;
+
+		/**
+		 * The number of ways to fill the chairs from a chair to the end of the ring, by the content
+		 * of chair 0, the chair, the content of the chair before it, and the numbers of figures of
+		 * PLAYER_A and PLAYER_B to place.
+		 */
+		private final long[]	ways;
+
+		/**
+		 * The rank of the first placement with a number of figures, up to one more than the chairs.
+		 */
+		private final long[]	offsets;
+
+		Ranking(int size) {
+			this.size = size;
+			countsA = (size + 1) / 2 + 1;
+			countsB = size / 2 + 1;
+			ways = new long[3 * (size + 1) * 3 * countsA * countsB];
+			for (int first = 0; first < 3; first++) {
+				for (int previous = 0; previous < 3; previous++) {
+					if (!isClash(previous, first)) ways[slot(first, size, previous, 0, 0)] = 1;
+				}
+				for (int chair = size - 1; chair >= 1; chair--) {
+					for (int previous = 0; previous < 3; previous++) {
+						for (int a = 0; a < countsA; a++) {
+							for (int b = 0; b < countsB; b++) {
+								long	n = 0;
+								for (int digit = 0; digit < 3; digit++) {
+									n += ways(first, chair + 1, previous, digit, a, b);
+								}
+								ways[slot(first, chair, previous, a, b)] = n;
+							}
+						}
+					}
+				}
+			}
+			offsets = new long[size + 2];
+			for (int figures = 0; figures <= size; figures++) {
+				long	n = 0;
+				for (int digit = 0; digit < 3; digit++) {
+					n += ways(digit, 1, digit, digit, (figures + 1) / 2, figures / 2);
+				}
+				offsets[figures + 1] = offsets[figures] + n;
+			}
+		}
+
+		/**
+		 * Returns the rank of a placement.
+		 *
+		 * @param a The chairs of PLAYER_A.
+		 * @param b The chairs of PLAYER_B.
+		 * @return The rank, <code>-1</code> if no game reaches the placement.
+		 */
+		int rank(long a, long b) {
+			int	figures = Long.bitCount(a) + Long.bitCount(b);
+			int	restA = (figures + 1) / 2, restB = figures / 2;
+			if (Long.bitCount(a) != restA) return -1;
+			int	first = digit(a, b, 0);
+			long	rank = offsets[figures];
+			for (int digit = 0; digit < first; digit++) {
+				rank += ways(digit, 1, digit, digit, restA, restB);
+			}
+			restA -= first == 1 ? 1 : 0;
+			restB -= first == 2 ? 1 : 0;
+			for (int chair = 1, previous = first; chair < size; chair++) {
+				int	d = digit(a, b, chair);
+				if (isClash(previous, d)) return -1;
+				for (int digit = 0; digit < d; digit++) {
+					rank += ways(first, chair + 1, previous, digit, restA, restB);
+				}
+				restA -= d == 1 ? 1 : 0;
+				restB -= d == 2 ? 1 : 0;
+				previous = d;
+			}
+			return isClash(digit(a, b, size - 1), first) ? -1 : (int) rank;
+		}
+
+		/**
+		 * Finds the placement of a rank.
+		 *
+		 * @param rank The rank.
+		 * @param masks Set to the chairs of PLAYER_A and PLAYER_B.
+		 */
+		void unrank(long rank, long[] masks) {
+			int	figures = 0;
+			while (offsets[figures + 1] <= rank) figures++;
+			rank -= offsets[figures];
+			int	restA = (figures + 1) / 2, restB = figures / 2;
+			long	a = 0, b = 0;
+			int	first = 0;
+			for (long n; rank >= (n = ways(first, 1, first, first, restA, restB)); first++) {
+				rank -= n;
+			}
+			for (int chair = 0, previous = first, d = first; chair < size; chair++) {
+				if (chair > 0) {
+					d = 0;
+					for (long n; rank >= (n = ways(first, chair + 1, previous, d, restA, restB)); d++) {
+						rank -= n;
+					}
+				}
+				if (d == 1) {
+					a |= 1L << chair;
+					restA--;
+				} else if (d == 2) {
+					b |= 1L << chair;
+					restB--;
+				}
+				previous = d;
+			}
+			masks[0] = a;
+			masks[1] = b;
+		}
+
+		/**
+		 * Returns the number of ways to fill the chairs after a chair given its content, if it can
+		 * follow the chair before it, the numbers of figures including it.
+		 */
+		private long ways(int first, int chair, int previous, int digit, int a, int b) {
+			if (isClash(previous, digit)) return 0;
+			if (digit == 1) a--;
+			if (digit == 2) b--;
+			return a < 0 || b < 0 || a >= countsA || b >= countsB ? 0 : ways[slot(first, chair, digit, a, b)];
+		}
+
+		private int slot(int first, int chair, int previous, int a, int b) {
+			return (((first * (size + 1) + chair) * 3 + previous) * countsA + a) * countsB + b;
+		}
+
+		/**
+		 * Returns if the contents of two chairs are figures of both players, which can not sit next
+		 * to each other.
+		 */
+		private static boolean isClash(int x, int y) {
+			return x + y == 3;
+		}
+
+		private static int digit(long a, long b, int chair) {
+			return (int) ((a >>> chair) & 1) | (int) ((b >>> chair) & 1) << 1;
+		}
+	}
+
+	/**
+	 * Generates the tablebase of a ring and writes it to a file.
+	 *
+	 * @param args The number of chairs and the name of the file.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: Tablebase <number of chairs> <file>");
+			return;
+		}
+		int	size = Integer.parseInt(args[0]);
+		long	start = System.nanoTime();
+		Tablebase	tablebase = generate(size);
+		tablebase.write(Paths.get(args[1]));
+		System.out.printf("Solved %d chairs in %d ms: the first player %s in %d moves%n", size,
+				(System.nanoTime() - start) / 1000000, isWin(tablebase.probe(0)) ? "wins" : "loses",
+				distance(tablebase.probe(0)));
+	}
+
+}
@@ -0,0 +1,99 @@
+package chairgame;
+
+/**
+ * Machine player making perfect moves by looking them up in a {@link Tablebase}.
+ *
+ * In a won game state it chooses the move winning fastest, in a lost one the move holding out
+ * longest, ties going to the lowest chair.
+ */
+public class TablebasePlayer extends PlayerImp {
+
+	/**
+	 * The default name of the machine player.
+	 */
+	private static final String	NAME = "Computer";
+
+	/**
+	 * The solved game states.
+	 */
+	private Tablebase	tablebase;
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param identity The player we intend to calculate a move for.
+	 * @param tablebase The solved game states.
+	 */
+	public TablebasePlayer(Identity identity, Tablebase tablebase) {
+		this(NAME, identity, tablebase);
+	}
+
+	/**
+	 * Constructor to create a machine player.
+	 *
+	 * @param name The name of the player.
+	 * @param identity The player we intend to calculate a move for.
+	 * @param tablebase The solved game states.
+	 */
+	public TablebasePlayer(String name, Identity identity, Tablebase tablebase) {
+		super(name, identity);
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * @return <code>false</code> as the machine player is not interactive
+	 */
+	public boolean isInteractive() {
+		return false;
+	}
+
+	/**
+	 * Returns the solved game states used by the machine player.
+	 *
+	 * @return The tablebase.
+	 */
+	public Tablebase getTablebase() {
+		return tablebase;
+	}
+
+	/**
+	 * Sets the solved game states used by the machine player.
+	 *
+	 * @param tablebase The tablebase.
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Looks up the best move for the player in a given game state.
+	 *
+	 * @param position The game state the move is calculated for.
+	 * @return The perfect move.
+	 */
+	public Operator getOperator(Position position) throws GameException {
+		if (position.isTerminal() || position.getNext() != identity) {
+			throw new GameException();
+		}
+		ChairGame	game = (ChairGame) position;
+		if (tablebase.probe(game) == 0) {
+			throw new GameException("The game state is not in the tablebase");
+		}
+		ChairGame	child = game.clone();
+		int	bestChair = -1, bestRank = Integer.MIN_VALUE;
+		for (long moves = game.getMoves(); moves != 0; moves &= moves - 1) {
+			int	chair = Long.numberOfTrailingZeros(moves);
+			child.apply(chair);
+			int	entry = tablebase.probe(child);
+			child.undo();
+			// the opponent losing fastest is best, then the opponent winning slowest
+			int	rank = Tablebase.isWin(entry) ? Tablebase.distance(entry) : 2 * Tablebase.DISTANCE - Tablebase.distance(entry);
+			if (rank > bestRank) {
+				bestRank = rank;
+				bestChair = chair;
+			}
+		}
+		return Sit.of(bestChair);
+	}
+
+}
@@ -0,0 +1,452 @@
+package chairgame;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Headless tournament of machine players playing the chair game against each other.
+ *
+ * Every pair of entrants plays the same number of games on a bounded pool of threads, each entrant
+ * playing PLAYER_A in half of them. The first moves of a game can be random, so that deterministic
+ * players do not repeat the same game, and every opening is played from both sides, except the
+ * last one of a pair playing an odd number of games. The report gives the win rates of the pairs
+ * with 95% confidence intervals, the Elo ratings of the entrants, the processor time they used and
+ * the games played per second.
+ */
+public class Tournament {
+
+	/**
+	 * The z value of a 95% confidence interval.
+	 */
+	private static final double	Z = 1.96;
+
+	/**
+	 * The number of iterations of the Elo rating fit.
+	 */
+	private static final int	ELO_ITERATIONS = 1000;
+
+	/**
+	 * A machine player setting taking part in the tournament.
+	 */
+	public static class Entrant {
+
+		private final String	name;
+
+		private final Function<Identity, Player>	factory;
+
+		/**
+		 * Constructor to create an entrant.
+		 *
+		 * @param name The name of the entrant.
+		 * @param factory Creates a new player of the entrant for every game, as players are not
+		 *        thread-safe.
+		 */
+		public Entrant(String name, Function<Identity, Player> factory) {
+			this.name = name;
+			this.factory = factory;
+		}
+
+		/**
+		 * @return The name of the entrant.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Creates a player of the entrant.
+		 *
+		 * @param identity The side the player plays.
+		 * @return The new player.
+		 */
+		public Player create(Identity identity) {
+			return factory.apply(identity);
+		}
+
+		/**
+		 * Returns an entrant using {@link MinimaxPlayer}.
+		 *
+		 * @param depth The maximum depth of the search.
+		 * @param ef The evaluation function, which has to be thread-safe.
+		 * @param efName The name of the evaluation function.
+		 * @return The entrant.
+		 */
+		public static Entrant minimax(final int depth, final EvaluationFunction<ChairGame> ef, String efName) {
+			return new Entrant("minimax:" + depth + ":" + efName,
+					identity -> new MinimaxPlayer(identity, depth, ef));
+		}
+
+		/**
+		 * Returns an entrant using {@link AlphaBetaPlayer}, with a small transposition table.
+		 *
+		 * @param depth The maximum depth of the search.
+		 * @param ef The evaluation function, which has to be thread-safe.
+		 * @param efName The name of the evaluation function.
+		 * @return The entrant.
+		 */
+		public static Entrant alphaBeta(final int depth, final EvaluationFunction<ChairGame> ef, String efName) {
+			return new Entrant("alphabeta:" + depth + ":" + efName, identity -> {
+				AlphaBetaPlayer	player = new AlphaBetaPlayer(identity, depth, ef);
+				player.setTranspositionTable(new TranspositionTable(1));
+				return player;
+			});
+		}
+
+		/**
+		 * Returns an entrant using {@link PrincipalVariationPlayer}, with a small transposition table.
+		 *
+		 * @param depth The maximum depth of the search.
+		 * @param ef The evaluation function, which has to be thread-safe.
+		 * @param efName The name of the evaluation function.
+		 * @return The entrant.
+		 */
+		public static Entrant principalVariation(final int depth, final EvaluationFunction<ChairGame> ef, String efName) {
+			return new Entrant("pvs:" + depth + ":" + efName, identity -> {
+				PrincipalVariationPlayer	player = new PrincipalVariationPlayer(identity, depth, ef);
+				player.setTranspositionTable(new TranspositionTable(1));
+				return player;
+			});
+		}
+
+		/**
+		 * Returns an entrant using {@link MonteCarloPlayer} on a single thread.
+		 *
+		 * @param playouts The number of playouts of a move.
+		 * @return The entrant.
+		 */
+		public static Entrant monteCarlo(final int playouts) {
+			return new Entrant("mcts:" + playouts, identity -> new MonteCarloPlayer(identity, playouts));
+		}
+	}
+
+	/**
+	 * The result of one game.
+	 */
+	private static class Game {
+
+		/**
+		 * The indices of the entrants playing PLAYER_A and PLAYER_B.
+		 */
+		int	a, b;
+
+		/**
+		 * The index of the winning entrant.
+		 */
+		int	winner;
+
+		/**
+		 * The processor time used by the entrants in nanoseconds.
+		 */
+		long	timeA, timeB;
+
+		/**
+		 * The number of moves chosen by the entrants.
+		 */
+		int	movesA, movesB;
+	}
+
+	private final List<Entrant>	entrants;
+
+	private final int	gamesPerPair;
+
+	private final int	randomMoves;
+
+	private final int	threads;
+
+	private final long	seed;
+
+	/**
+	 * The number of games won by the entrants against each other.
+	 */
+	private long[][]	wins;
+
+	private long[]	time, moves;
+
+	private long	games, wallTime;
+
+	/**
+	 * Constructor to create a tournament.
+	 *
+	 * @param entrants The entrants, at least two.
+	 * @param gamesPerPair The number of games every pair of entrants plays.
+	 * @param randomMoves The number of random moves starting every game.
+	 * @param threads The number of games played at the same time.
+	 * @param seed The seed of the random moves.
+	 */
+	public Tournament(List<Entrant> entrants, int gamesPerPair, int randomMoves, int threads, long seed) {
+		if (entrants.size() < 2) {
+			throw new IllegalArgumentException("A tournament needs at least two entrants");
+		}
+		this.entrants = new ArrayList<Entrant>(entrants);
+		this.gamesPerPair = gamesPerPair;
+		this.randomMoves = randomMoves;
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	/**
+	 * Plays every game of the tournament.
+	 *
+	 * @throws GameException If a player fails to choose a move.
+	 */
+	public void run() throws GameException {
+		int	n = entrants.size();
+		wins = new long[n][n];
+		time = new long[n];
+		moves = new long[n];
+		games = 0;
+		ExecutorService	pool = Executors.newFixedThreadPool(threads);
+		long	start = System.nanoTime();
+		try {
+			List<Future<Game>>	results = new ArrayList<Future<Game>>();
+			int	pair = 0;
+			for (int i = 0; i < n; i++) {
+				for (int j = i + 1; j < n; j++, pair++) {
+					for (int k = 0; k < gamesPerPair; k++) {
+						final int	a = k % 2 == 0 ? i : j, b = k % 2 == 0 ? j : i;
+						// the same random opening is played with the sides swapped
+						final long	gameSeed = seed + (long) pair * ((gamesPerPair + 1) / 2) + k / 2;
+						results.add(pool.submit(() -> play(a, b, gameSeed)));
+					}
+				}
+			}
+			for (Future<Game> result : results) {
+				Game	game = result.get();
+				int	loser = game.winner == game.a ? game.b : game.a;
+				wins[game.winner][loser]++;
+				time[game.a] += game.timeA;
+				time[game.b] += game.timeB;
+				moves[game.a] += game.movesA;
+				moves[game.b] += game.movesB;
+				games++;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GameException("The tournament was interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof GameException) throw (GameException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		wallTime = System.nanoTime() - start;
+	}
+
+	/**
+	 * Plays one game.
+	 *
+	 * @param a The index of the entrant playing PLAYER_A.
+	 * @param b The index of the entrant playing PLAYER_B.
+	 * @param seed The seed of the random moves.
+	 * @return The result.
+	 */
+	private Game play(int a, int b, long seed) throws GameException {
+		ThreadMXBean	bean = ManagementFactory.getThreadMXBean();
+		Random	random = new Random(seed);
+		Player	playerA = entrants.get(a).create(Identity.PLAYER_A);
+		Player	playerB = entrants.get(b).create(Identity.PLAYER_B);
+		Game	game = new Game();
+		game.a = a;
+		game.b = b;
+		ChairGame	position = new ChairGame();
+		for (int k = 0; k < randomMoves && !position.isTerminal(); k++) {
+			long	free = position.getMoves();
+			for (int skip = random.nextInt(Long.bitCount(free)); skip > 0; skip--) {
+				free &= free - 1;
+			}
+			position.apply(Long.numberOfTrailingZeros(free));
+		}
+		while (!position.isTerminal()) {
+			boolean	turnA = position.getNext() == Identity.PLAYER_A;
+			long	before = bean.getCurrentThreadCpuTime();
+			Operator	operator = (turnA ? playerA : playerB).getOperator(position);
+			long	used = bean.getCurrentThreadCpuTime() - before;
+			if (turnA) {
+				game.timeA += used;
+				game.movesA++;
+			} else {
+				game.timeB += used;
+				game.movesB++;
+			}
+			position.apply(operator);
+		}
+		game.winner = position.getWinner() == Identity.PLAYER_A ? a : b;
+		return game;
+	}
+
+	/**
+	 * Returns the win rate of an entrant against another one.
+	 *
+	 * @param i The index of the entrant.
+	 * @param j The index of the opponent.
+	 * @return The share of the games won.
+	 */
+	public double getWinRate(int i, int j) {
+		long	n = wins[i][j] + wins[j][i];
+		return n > 0 ? (double) wins[i][j] / n : 0.5;
+	}
+
+	/**
+	 * Returns the Elo ratings of the entrants, the first one having 0. The ratings are fitted to every
+	 * game by maximum likelihood, with half a win added both ways between every pair so that an
+	 * entrant winning every game has a finite rating.
+	 *
+	 * @return The ratings, indexed like the entrants.
+	 */
+	public double[] getElo() {
+		int	n = entrants.size();
+		double[]	gamma = new double[n];
+		Arrays.fill(gamma, 1);
+		for (int iteration = 0; iteration < ELO_ITERATIONS; iteration++) {
+			for (int i = 0; i < n; i++) {
+				double	won = 0, sum = 0;
+				for (int j = 0; j < n; j++) {
+					if (i == j) continue;
+					won += wins[i][j] + 0.5;
+					sum += (wins[i][j] + wins[j][i] + 1) / (gamma[i] + gamma[j]);
+				}
+				gamma[i] = won / sum;
+			}
+		}
+		double[]	elo = new double[n];
+		for (int i = 0; i < n; i++) {
+			elo[i] = 400 * Math.log10(gamma[i] / gamma[0]);
+		}
+		return elo;
+	}
+
+	/**
+	 * Writes the results of the tournament.
+	 *
+	 * @param out The stream to write to.
+	 */
+	public void report(PrintStream out) {
+		int	n = entrants.size();
+		double	seconds = wallTime / 1e9;
+		out.printf("%d games in %.1f s on %d threads: %.1f games/s%n%n", games, seconds, threads, games / seconds);
+		double[]	elo = getElo();
+		out.printf("%-24s %7s %7s %7s %10s %12s%n", "Entrant", "Games", "Score", "Elo", "ms/move", "CPU s/game");
+		for (int i = 0; i < n; i++) {
+			long	played = 0, won = 0;
+			for (int j = 0; j < n; j++) {
+				played += wins[i][j] + wins[j][i];
+				won += wins[i][j];
+			}
+			out.printf("%-24s %7d %6.1f%% %+7.0f %10.3f %12.4f%n", entrants.get(i).getName(), played,
+					100.0 * won / Math.max(1, played), elo[i], time[i] / 1e6 / Math.max(1, moves[i]),
+					time[i] / 1e9 / Math.max(1, played));
+		}
+		out.println();
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				long	played = wins[i][j] + wins[j][i];
+				double	p = getWinRate(i, j);
+				double[]	interval = wilson(wins[i][j], played);
+				out.printf("%s vs %s: %d-%d, win rate %.1f%% [%.1f%%, %.1f%%], Elo %+.0f [%+.0f, %+.0f]%n",
+						entrants.get(i).getName(), entrants.get(j).getName(), wins[i][j], wins[j][i], 100 * p,
+						100 * interval[0], 100 * interval[1], eloDifference(p), eloDifference(interval[0]),
+						eloDifference(interval[1]));
+			}
+		}
+	}
+
+	/**
+	 * Returns the Wilson score interval of a win rate.
+	 *
+	 * @param won The number of games won.
+	 * @param played The number of games played.
+	 * @return The lower and upper end of the 95% confidence interval.
+	 */
+	static double[] wilson(long won, long played) {
+		if (played == 0) return new double[] {0, 1};
+		double	p = (double) won / played, z2 = Z * Z / played;
+		double	center = (p + z2 / 2) / (1 + z2);
+		double	half = Z * Math.sqrt(p * (1 - p) / played + z2 / (4 * played)) / (1 + z2);
+		return new double[] {Math.max(0, center - half), Math.min(1, center + half)};
+	}
+
+	/**
+	 * Returns the Elo difference expected from a win rate.
+	 *
+	 * @param p The win rate.
+	 * @return The difference, infinite for a win rate of 0 or 1.
+	 */
+	static double eloDifference(double p) {
+		return -400 * Math.log10(1 / p - 1);
+	}
+
+	/**
+	 * Parses an entrant: <code>minimax:depth[:ef]</code>, <code>alphabeta:depth[:ef]</code> or
+	 * <code>pvs:depth[:ef]</code>, where the evaluation function is <code>ef3</code>, the default,
+	 * or <code>bits</code> for {@link BitboardEvaluationFunction}, or <code>mcts:playouts</code>.
+	 *
+	 * @param spec The description of the entrant.
+	 * @return The entrant.
+	 */
+	static Entrant parse(String spec) {
+		String[]	parts = spec.split(":");
+		if (parts.length < 2 || parts.length > 3) {
+			throw new IllegalArgumentException("Invalid entrant: " + spec);
+		}
+		if (parts[0].equals("mcts") && parts.length == 2) return Entrant.monteCarlo(Integer.parseInt(parts[1]));
+		int	depth = Integer.parseInt(parts[1]);
+		String	efName = parts.length > 2 ? parts[2] : "ef3";
+		EvaluationFunction<ChairGame>	ef;
+		if (efName.equals("ef3")) {
+			ef = new ChairEvaluationFunction3();
+		} else if (efName.equals("bits")) {
+			ef = new BitboardEvaluationFunction();
+		} else {
+			throw new IllegalArgumentException("Unknown evaluation function: " + efName);
+		}
+		if (parts[0].equals("minimax")) return Entrant.minimax(depth, ef, efName);
+		if (parts[0].equals("alphabeta")) return Entrant.alphaBeta(depth, ef, efName);
+		if (parts[0].equals("pvs")) return Entrant.principalVariation(depth, ef, efName);
+		throw new IllegalArgumentException("Unknown player: " + parts[0]);
+	}
+
+	/**
+	 * Runs a tournament.
+	 *
+	 * @param args Options <code>-games</code> (per pair, default 1000), <code>-random</code> (random
+	 *        moves, default 2), <code>-threads</code> (default the number of processors) and
+	 *        <code>-seed</code>, followed by at least two entrants.
+	 */
+	public static void main(String[] args) throws GameException {
+		int	games = 1000, randomMoves = 2, threads = Runtime.getRuntime().availableProcessors();
+		long	seed = 1;
+		List<Entrant>	entrants = new ArrayList<Entrant>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-games")) {
+				games = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-random")) {
+				randomMoves = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-threads")) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-seed")) {
+				seed = Long.parseLong(args[++i]);
+			} else {
+				entrants.add(parse(args[i]));
+			}
+		}
+		if (entrants.size() < 2) {
+			System.out.println("Usage: Tournament [-games n] [-random n] [-threads n] [-seed n] "
+					+ "minimax:depth[:ef3|bits] | alphabeta:depth[:ef3|bits] | pvs:depth[:ef3|bits] | mcts:playouts ...");
+			return;
+		}
+		Tournament	tournament = new Tournament(entrants, games, randomMoves, threads, seed);
+		tournament.run();
+		tournament.report(System.out);
+	}
+
+}
@@ -0,0 +1,235 @@
+package chairgame;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size hash table storing search results of game states, keyed by their Zobrist hash.
+ *
+ * Every bucket holds two entries: the first one is replaced only by a result of at least the same
+ * depth or if it was stored by an earlier search, the second one is always replaced. An entry is
+ * packed into a single long, and the key is stored XOR-ed with it, so an entry torn by concurrent
+ * writers is seen as a miss. The table can be shared by the threads of a parallel search.
+ */
+public class TranspositionTable {
+
+	/**
+	 * Bound type of a score which is at least the value of the game state.
+	 */
+	public static final int	UPPER = 1;
+
+	/**
+	 * Bound type of a score which is at most the value of the game state.
+	 */
+	public static final int	LOWER = 2;
+
+	/**
+	 * Bound type of a score which is the value of the game state.
+	 */
+	public static final int	EXACT = 3;
+
+	/**
+	 * The default size of the table in megabytes.
+	 */
+	public static final int	DEFAULT_SIZE = 16;
+
+	/**
+	 * The size of one entry in bytes.
+	 */
+	private static final int	ENTRY_SIZE = 16;
+
+	/**
+	 * The number of bits of the best move of an entry.
+	 */
+	private static final int	MOVE_BITS = 17;
+
+	/**
+	 * The keys XOR-ed with the data of the entries.
+	 */
+	private final long[]	keys;
+
+	/**
+	 * The packed entries.
+	 */
+	private final long[]	data;
+
+	/**
+	 * The mask selecting a bucket from a key.
+	 */
+	private final int	mask;
+
+	/**
+	 * The age of the current search, stored with the entries.
+	 */
+	private int	generation;
+
+	/**
+	 * The number of successful lookups.
+	 */
+	private final LongAdder	hits = new LongAdder();
+
+	/**
+	 * The number of unsuccessful lookups.
+	 */
+	private final LongAdder	misses = new LongAdder();
+
+	/**
+	 * Constructor to create a table of the default size.
+	 */
+	public TranspositionTable() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Constructor to create a table.
+	 *
+	 * @param megabytes The memory the table may use, rounded down to a power of two entries.
+	 */
+	public TranspositionTable(int megabytes) {
+		long	entries = Long.highestOneBit(Math.max(2, ((long) megabytes << 20) / ENTRY_SIZE));
+		entries = Math.min(entries, 1 << 30);
+		keys = new long[(int) entries];
+		data = new long[(int) entries];
+		mask = (int) (entries / 2 - 1);
+	}
+
+	/**
+	 * Returns the number of entries of the table.
+	 *
+	 * @return The number of entries.
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Removes every entry and resets the counters.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Starts a new search, entries stored before become replaceable.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0x1f;
+	}
+
+	/**
+	 * Looks up a game state.
+	 *
+	 * @param key The hash of the game state.
+	 * @return The packed entry, or <code>0</code> if the game state is not in the table.
+	 */
+	public long probe(long key) {
+		int	i = bucket(key);
+		for (int j = i; j < i + 2; j++) {
+			long	entry = data[j];
+			if ((keys[j] ^ entry) == key && entry != 0) {
+				hits.increment();
+				return entry;
+			}
+		}
+		misses.increment();
+		return 0;
+	}
+
+	/**
+	 * Stores a search result.
+	 *
+	 * @param key The hash of the game state.
+	 * @param depth The depth the game state was searched to.
+	 * @param bound The bound type of the score.
+	 * @param score The score of the game state.
+	 * @param move The best move found, or <code>-1</code> if there is none. Only chairs below
+	 *        <code>2<sup>17</sup> - 1</code> fit in an entry; a move on a higher chair is not stored.
+	 */
+	public void store(long key, int depth, int bound, int score, int move) {
+		if (move + 1 >= 1 << MOVE_BITS) move = -1;
+		long	entry = (score & 0xffffffffL)
+				| ((long) Math.min(depth, 0xff) << 32)
+				| ((long) bound << 40)
+				| ((long) (move + 1) << 42)
+				| ((long) generation << 59);
+		int	i = bucket(key);
+		long	first = data[i];
+		if ((keys[i] ^ first) == key || generation(first) != generation || depth >= depth(first)) {
+			data[i] = entry;
+			keys[i] = key ^ entry;
+		} else {
+			data[i + 1] = entry;
+			keys[i + 1] = key ^ entry;
+		}
+	}
+
+	/**
+	 * Returns the number of successful lookups since the table was created or cleared.
+	 *
+	 * @return The number of hits.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of unsuccessful lookups since the table was created or cleared.
+	 *
+	 * @return The number of misses.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	private int bucket(long key) {
+		return ((int) (key ^ (key >>> 32)) & mask) << 1;
+	}
+
+	/**
+	 * Returns the score of an entry.
+	 *
+	 * @param entry The packed entry.
+	 * @return The score.
+	 */
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Returns the depth of an entry.
+	 *
+	 * @param entry The packed entry.
+	 * @return The depth the game state was searched to.
+	 */
+	public static int depth(long entry) {
+		return (int) (entry >>> 32) & 0xff;
+	}
+
+	/**
+	 * Returns the bound type of an entry.
+	 *
+	 * @param entry The packed entry.
+	 * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+	 */
+	public static int bound(long entry) {
+		return (int) (entry >>> 40) & 0x3;
+	}
+
+	/**
+	 * Returns the best move of an entry.
+	 *
+	 * @param entry The packed entry.
+	 * @return The index of the chair, or <code>-1</code> if there is none.
+	 */
+	public static int move(long entry) {
+		return ((int) (entry >>> 42) & ((1 << MOVE_BITS) - 1)) - 1;
+	}
+
+	private static int generation(long entry) {
+		return (int) (entry >>> 59) & 0x1f;
+	}
+
+}
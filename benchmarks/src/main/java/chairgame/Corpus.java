@@ -0,0 +1,96 @@
+package chairgame;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The fixed game states of the 14 chair ring the benchmarks are measured on, in three phases of
+ * the game. A benchmark takes the game states of its phase one after the other.
+ */
+@State(Scope.Thread)
+public class Corpus {
+
+	/**
+	 * Game states with at most three figures, as the chairs sat on in turn.
+	 */
+	private static final int[][]	OPENING = {{}, {0}, {0, 7}, {2, 9, 4}};
+
+	/**
+	 * Game states with five or six figures.
+	 */
+	private static final int[][]	MIDDLEGAME = {{0, 7, 2, 9, 12}, {0, 6, 2, 8, 11, 4}, {1, 8, 3, 10, 13, 6}};
+
+	/**
+	 * Game states a few moves from the end.
+	 */
+	private static final int[][]	ENDGAME = {{0, 7, 2, 9, 12, 5, 1}, {0, 6, 2, 8, 11, 4, 12, 7}, {1, 8, 3, 10, 13, 6, 2, 9}};
+
+	/**
+	 * The phase of the game the game states are taken from.
+	 */
+	@Param({"opening", "middlegame", "endgame"})
+	public String	phase;
+
+	private ChairGame[]	positions;
+
+	private int	next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		positions = positions(phase);
+		next = 0;
+	}
+
+	/**
+	 * Returns the next game state of the phase.
+	 *
+	 * @return The game state, which must not be changed.
+	 */
+	public ChairGame next() {
+		ChairGame	position = positions[next];
+		next = (next + 1) % positions.length;
+		return position;
+	}
+
+	/**
+	 * Returns the game states of a phase.
+	 *
+	 * @param phase <code>opening</code>, <code>middlegame</code> or <code>endgame</code>.
+	 * @return New instances of the game states.
+	 */
+	public static ChairGame[] positions(String phase) {
+		int[][]	games;
+		if ("opening".equals(phase)) {
+			games = OPENING;
+		} else if ("middlegame".equals(phase)) {
+			games = MIDDLEGAME;
+		} else if ("endgame".equals(phase)) {
+			games = ENDGAME;
+		} else {
+			throw new IllegalArgumentException("Unknown phase: " + phase);
+		}
+		ChairGame[]	positions = new ChairGame[games.length];
+		for (int k = 0; k < games.length; k++) {
+			positions[k] = play(games[k]);
+		}
+		return positions;
+	}
+
+	private static ChairGame play(int[] chairs) {
+		ChairGame	position = new ChairGame();
+		for (int chair : chairs) {
+			if (!position.isApplicable(chair)) {
+				throw new IllegalStateException("Illegal move " + chair + " in " + position);
+			}
+			position.apply(chair);
+		}
+		if (position.isTerminal()) {
+			throw new IllegalStateException("Finished game in the corpus: " + position);
+		}
+		return position;
+	}
+
+}
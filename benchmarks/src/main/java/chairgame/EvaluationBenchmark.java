@@ -0,0 +1,48 @@
+package chairgame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the evaluation functions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+	private final ChairEvaluationFunction3	ef3 = new ChairEvaluationFunction3();
+
+	private final BitboardEvaluationFunction	bits = new BitboardEvaluationFunction();
+
+	/**
+	 * Evaluates a game state for the player to move.
+	 */
+	@Benchmark
+	public int chairEvaluationFunction3(Corpus corpus) {
+		ChairGame	position = corpus.next();
+		return ef3.getValue(position, position.getNext());
+	}
+
+	/**
+	 * Evaluates a game state for the player to move from its masks.
+	 */
+	@Benchmark
+	public int bitboardEvaluationFunction(Corpus corpus) {
+		ChairGame	position = corpus.next();
+		return bits.getValue(position, position.getNext());
+	}
+
+}
@@ -0,0 +1,99 @@
+package chairgame;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the cost of a move on rings of growing size. A quarter of the chairs of the ring
+ * is taken by random moves, and the benchmarks sit on the chairs left one after the other. A move
+ * only looks at the chairs next to it, so its cost should not grow with the ring, while listing
+ * the moves goes through every chair.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LargeRingBenchmark {
+
+	/**
+	 * The number of chairs in the ring.
+	 */
+	@Param({"14", "1000", "100000"})
+	public int	size;
+
+	private ChairGame	position;
+
+	private int[]	moves;
+
+	private int	count;
+
+	private int	next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random	random = new Random(size);
+		position = new ChairGame(size);
+		moves = new int[size];
+		for (int figures = 0; figures < (size + 3) / 4; figures++) {
+			count = position.moves(moves);
+			position.apply(moves[random.nextInt(count)]);
+		}
+		count = position.moves(moves);
+		if (count == 0) {
+			throw new IllegalStateException("Finished game: " + size);
+		}
+		next = 0;
+	}
+
+	private int nextMove() {
+		int	chair = moves[next];
+		next = next + 1 == count ? 0 : next + 1;
+		return chair;
+	}
+
+	/**
+	 * Sits on a chair and takes the move back.
+	 */
+	@Benchmark
+	public int applyUndo() {
+		int	chair = nextMove();
+		position.apply(chair);
+		position.undo();
+		return chair;
+	}
+
+	/**
+	 * Sits on a chair, checks for the end of the game and takes the move back, as a search does.
+	 */
+	@Benchmark
+	public boolean applyTerminalUndo() {
+		position.apply(nextMove());
+		boolean	terminal = position.isTerminal();
+		position.undo();
+		return terminal;
+	}
+
+	/**
+	 * Lists every move into a buffer, the same moves as the ones sat on.
+	 */
+	@Benchmark
+	public int moves() {
+		return position.moves(moves);
+	}
+
+}
@@ -0,0 +1,58 @@
+package chairgame;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of listing the moves of a game state.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+	private final int[]	buffer = new int[ChairGame.MAX_CHAIRS];
+
+	/**
+	 * Lists the moves as operators.
+	 */
+	@Benchmark
+	public List<Sit> operators(Corpus corpus) {
+		return corpus.next().operators();
+	}
+
+	/**
+	 * Checks every chair for a move.
+	 */
+	@Benchmark
+	public int isApplicable(Corpus corpus) {
+		ChairGame	position = corpus.next();
+		int	count = 0;
+		for (int i = 0; i < position.size(); i++) {
+			if (position.isApplicable(i)) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Lists the moves into a buffer, without allocation.
+	 */
+	@Benchmark
+	public int moves(Corpus corpus) {
+		return corpus.next().moves(buffer);
+	}
+
+}
@@ -0,0 +1,76 @@
+package chairgame;
+
+/**
+ * Counts the game states the machine players visit choosing a move for each game state of the
+ * {@link Corpus}, and checks that the searches which should agree with minimax do. Unlike the
+ * benchmarks the counts do not depend on the machine, so they show what a change of the search
+ * saves.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar chairgame.NodeCounts 4 6
+ * </pre>
+ */
+public class NodeCounts {
+
+	/**
+	 * The phases of the corpus.
+	 */
+	private static final String[]	PHASES = {"opening", "middlegame", "endgame"};
+
+	/**
+	 * Prints the game states visited by each player, summed over the game states of each phase.
+	 *
+	 * @param args The depths to search to, 4 and 6 if none is given.
+	 */
+	public static void main(String[] args) throws GameException {
+		int[]	depths = {4, 6};
+		if (args.length > 0) {
+			depths = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				depths[i] = Integer.parseInt(args[i]);
+			}
+		}
+		ChairEvaluationFunction3	ef = new ChairEvaluationFunction3();
+		System.out.printf("%-10s %5s %12s %10s %10s %10s %s%n", "phase", "depth", "minimax", "alphabeta", "pvs",
+				"pvs+lmr", "lmr moves");
+		for (int depth : depths) {
+			for (String phase : PHASES) {
+				long	minimaxNodes = 0, alphaBetaNodes = 0, pvsNodes = 0, lmrNodes = 0;
+				int	agreeing = 0;
+				ChairGame[]	positions = Corpus.positions(phase);
+				for (ChairGame position : positions) {
+					Identity	identity = position.getNext();
+					MinimaxPlayer	minimax = new MinimaxPlayer(identity, depth, ef);
+					AlphaBetaPlayer	alphaBeta = new AlphaBetaPlayer(identity, depth, ef);
+					PrincipalVariationPlayer	pvs = new PrincipalVariationPlayer(identity, depth, ef);
+					PrincipalVariationPlayer	lmr = new PrincipalVariationPlayer(identity, depth, ef);
+					lmr.setLateMoveReductions(true);
+					// small tables as in the benchmarks, starting empty
+					alphaBeta.setTranspositionTable(new TranspositionTable(1));
+					pvs.setTranspositionTable(new TranspositionTable(1));
+					lmr.setTranspositionTable(new TranspositionTable(1));
+					Operator	move = minimax.getOperator(position);
+					minimaxNodes += minimax.getStatistics().getNodes();
+					check(alphaBeta.getOperator(position), move, alphaBeta);
+					alphaBetaNodes += alphaBeta.getNodes();
+					check(pvs.getOperator(position), move, pvs);
+					pvsNodes += pvs.getNodes();
+					if (((Sit) lmr.getOperator(position)).getI() == ((Sit) move).getI()) agreeing++;
+					lmrNodes += lmr.getNodes();
+				}
+				System.out.printf("%-10s %5d %12d %10d %10d %10d %d/%d%n", phase, depth, minimaxNodes, alphaBetaNodes,
+						pvsNodes, lmrNodes, agreeing, positions.length);
+			}
+		}
+	}
+
+	/**
+	 * Fails if a search chose another move than minimax.
+	 */
+	private static void check(Operator move, Operator expected, Player player) {
+		if (((Sit) move).getI() != ((Sit) expected).getI()) {
+			throw new IllegalStateException(player.getClass().getSimpleName() + " chose " + move + " instead of " + expected);
+		}
+	}
+
+}
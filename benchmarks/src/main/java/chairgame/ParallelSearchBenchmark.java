@@ -0,0 +1,73 @@
+package chairgame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parallel search choosing a move on a growing number of threads. The speedup
+ * on <code>n</code> threads is the time per search on one thread divided by the time on
+ * <code>n</code>; it can only be seen on a machine with at least <code>n</code> processors.
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar ParallelSearchBenchmark -p threads=1,2,4,8
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParallelSearchBenchmark {
+
+	/**
+	 * The depth of the searches.
+	 */
+	@Param({"8"})
+	public int	depth;
+
+	/**
+	 * The number of threads of the search.
+	 */
+	@Param({"1", "2", "4"})
+	public int	threads;
+
+	private ParallelSearchPlayer	player;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		player = new ParallelSearchPlayer(Identity.PLAYER_A, depth, new ChairEvaluationFunction3(), threads);
+		player.setTranspositionTable(new TranspositionTable(1));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		player.shutdown();
+	}
+
+	/**
+	 * Chooses a move with the parallel search. Every search starts with an empty transposition
+	 * table; clearing it is part of the time measured.
+	 */
+	@Benchmark
+	public Operator parallelSearch(Corpus corpus) throws GameException {
+		ChairGame	position = corpus.next();
+		player.getTranspositionTable().clear();
+		player.setIdentity(position.getNext());
+		return player.getOperator(position);
+	}
+
+}
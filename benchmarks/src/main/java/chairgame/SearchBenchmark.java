@@ -0,0 +1,156 @@
+package chairgame;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the machine players choosing a move. Besides the searches per second the game
+ * states visited per second are reported as <code>nodes</code>.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+	/**
+	 * The depth of the searches.
+	 */
+	@Param({"4"})
+	public int	depth;
+
+	@Param({"opening", "middlegame", "endgame"})
+	public String	phase;
+
+	private ChairGame[]	positions;
+
+	/**
+	 * The number of game states minimax visits for each game state of the corpus.
+	 */
+	private long[]	treeSizes;
+
+	private int	next;
+
+	private MinimaxPlayer	minimax;
+
+	private AlphaBetaPlayer	alphaBeta;
+
+	private PrincipalVariationPlayer	principalVariation;
+
+	/**
+	 * The game states visited, counted as a rate by JMH.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Nodes {
+
+		public long	nodes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			nodes = 0;
+		}
+	}
+
+	/**
+	 * The transposition table of a search, emptied before every search. Only the benchmarks using
+	 * a table take this state, so the others are timed without a setup per invocation.
+	 */
+	@State(Scope.Thread)
+	public static class Table {
+
+		public final TranspositionTable	table = new TranspositionTable(1);
+
+		@Setup(Level.Invocation)
+		public void clear() {
+			table.clear();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		positions = Corpus.positions(phase);
+		treeSizes = new long[positions.length];
+		for (int k = 0; k < positions.length; k++) {
+			// the root is not evaluated
+			treeSizes[k] = treeSize(positions[k].clone(), depth) - 1;
+		}
+		ChairEvaluationFunction3	ef = new ChairEvaluationFunction3();
+		minimax = new MinimaxPlayer(Identity.PLAYER_A, depth, ef);
+		alphaBeta = new AlphaBetaPlayer(Identity.PLAYER_A, depth, ef);
+		principalVariation = new PrincipalVariationPlayer(Identity.PLAYER_A, depth, ef);
+	}
+
+	/**
+	 * Chooses a move with minimax. The search allocates nothing per game state, so with
+	 * <code>-prof gc</code> the bytes allocated per search are the same in every phase.
+	 */
+	@Benchmark
+	public Operator minimax(Nodes nodes) throws GameException {
+		ChairGame	position = positions[next];
+		nodes.nodes += treeSizes[next];
+		next = (next + 1) % positions.length;
+		minimax.setIdentity(position.getNext());
+		return minimax.getOperator(position);
+	}
+
+	/**
+	 * Chooses a move with alpha-beta pruning and a transposition table, starting empty.
+	 */
+	@Benchmark
+	public Operator alphaBeta(Nodes nodes, Table table) throws GameException {
+		ChairGame	position = positions[next];
+		next = (next + 1) % positions.length;
+		alphaBeta.setTranspositionTable(table.table);
+		alphaBeta.setIdentity(position.getNext());
+		Operator	operator = alphaBeta.getOperator(position);
+		nodes.nodes += alphaBeta.getNodes();
+		return operator;
+	}
+
+	/**
+	 * Chooses a move with principal variation search, killer moves and the history heuristic,
+	 * the transposition table starting empty.
+	 */
+	@Benchmark
+	public Operator principalVariation(Nodes nodes, Table table) throws GameException {
+		ChairGame	position = positions[next];
+		next = (next + 1) % positions.length;
+		principalVariation.setTranspositionTable(table.table);
+		principalVariation.setIdentity(position.getNext());
+		Operator	operator = principalVariation.getOperator(position);
+		nodes.nodes += principalVariation.getNodes();
+		return operator;
+	}
+
+	/**
+	 * Counts the game states minimax visits below a game state, itself included.
+	 */
+	private static long treeSize(ChairGame position, int depth) {
+		long	size = 1;
+		if (depth > 0 && !position.isTerminal()) {
+			for (long moves = position.getMoves(); moves != 0; moves &= moves - 1) {
+				position.apply(Long.numberOfTrailingZeros(moves));
+				size += treeSize(position, depth - 1);
+				position.undo();
+			}
+		}
+		return size;
+	}
+
+}
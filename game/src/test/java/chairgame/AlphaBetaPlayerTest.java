@@ -0,0 +1,86 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AlphaBetaPlayerTest {
+
+	/**
+	 * Moves of one player calculated at the same time are the moves calculated one after the other.
+	 */
+	@Test
+	public void concurrentSearches() throws Exception {
+		AlphaBetaPlayer	player = new AlphaBetaPlayer(Identity.PLAYER_A, 8, new ChairEvaluationFunction3());
+		player.setTranspositionTable(null);
+		List<ChairGame>	positions = new ArrayList<ChairGame>();
+		for (int chair = 0; chair < ChairGame.NUMBER_OF_CHAIRS; chair += 3) {
+			ChairGame	position = new ChairGame();
+			position.apply(chair);
+			position.apply((chair + 7) % ChairGame.NUMBER_OF_CHAIRS);
+			positions.add(position);
+		}
+		List<Operator>	expected = new ArrayList<Operator>();
+		for (ChairGame position : positions) {
+			expected.add(player.getOperator(position));
+		}
+		ExecutorService	executor = Executors.newFixedThreadPool(4);
+		try {
+			List<CompletableFuture<Operator>>	futures = new ArrayList<CompletableFuture<Operator>>();
+			for (ChairGame position : positions) {
+				futures.add(player.getOperatorAsync(position, executor));
+			}
+			for (int k = 0; k < positions.size(); k++) {
+				assertEquals(((Sit) expected.get(k)).getI(), ((Sit) futures.get(k).get(30, TimeUnit.SECONDS)).getI());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Searches queued at the same time each return the score and the statistics of their own
+	 * search.
+	 */
+	@Test
+	public void resultsOfQueuedSearches() throws Exception {
+		AlphaBetaPlayer	player = new AlphaBetaPlayer(Identity.PLAYER_A, 6, new ChairEvaluationFunction3());
+		player.setTranspositionTable(null);
+		List<ChairGame>	positions = new ArrayList<ChairGame>();
+		for (int chair = 0; chair < ChairGame.NUMBER_OF_CHAIRS; chair += 4) {
+			ChairGame	position = new ChairGame();
+			position.apply(chair);
+			position.apply((chair + 5) % ChairGame.NUMBER_OF_CHAIRS);
+			positions.add(position);
+		}
+		List<Integer>	scores = new ArrayList<Integer>();
+		List<Long>	nodes = new ArrayList<Long>();
+		for (ChairGame position : positions) {
+			player.getOperator(position);
+			scores.add(player.getScore());
+			nodes.add(player.getStatistics().getNodes());
+		}
+		ExecutorService	executor = Executors.newFixedThreadPool(4);
+		try {
+			List<CompletableFuture<SearchResult>>	futures = new ArrayList<CompletableFuture<SearchResult>>();
+			for (ChairGame position : positions) {
+				futures.add(player.searchAsync(position, executor, 0));
+			}
+			for (int k = 0; k < positions.size(); k++) {
+				SearchResult	result = futures.get(k).get(30, TimeUnit.SECONDS);
+				assertEquals(scores.get(k).intValue(), result.getScore());
+				assertEquals(nodes.get(k).longValue(), result.getStatistics().getNodes());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
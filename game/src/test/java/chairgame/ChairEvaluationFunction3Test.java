@@ -0,0 +1,97 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the room the game state keeps up to date against the scan of the ring it replaced.
+ */
+public class ChairEvaluationFunction3Test {
+
+	/**
+	 * The number of moves and takebacks played on each ring.
+	 */
+	private static final int	STEPS = 4000;
+
+	private final ChairEvaluationFunction3	ef = new ChairEvaluationFunction3();
+
+	/**
+	 * Rings of up to six chairs: on five chairs or fewer a change reaches every figure, six chairs
+	 * is the first ring with a figure out of its reach.
+	 */
+	@Test
+	public void smallRings() {
+		for (int size = 1; size <= 6; size++) {
+			playRandomly(size, new Random(size));
+		}
+	}
+
+	@Test
+	public void gameRing() {
+		playRandomly(ChairGame.NUMBER_OF_CHAIRS, new Random(14));
+	}
+
+	/**
+	 * Rings around a word of chairs.
+	 */
+	@Test
+	public void wordRings() {
+		for (int size = 62; size <= 66; size++) {
+			playRandomly(size, new Random(size));
+		}
+	}
+
+	@Test
+	public void largeRing() {
+		playRandomly(130, new Random(130));
+	}
+
+	/**
+	 * Sets random chairs to random values, which need not be a game state a game can reach.
+	 */
+	@Test
+	public void set() {
+		Random	random = new Random(0);
+		for (int size = 1; size <= 66; size++) {
+			ChairGame	position = new ChairGame(size);
+			for (int step = 0; step < 200; step++) {
+				position.set(random.nextInt(size), (byte) (random.nextInt(3) - 1));
+				check(position);
+			}
+		}
+	}
+
+	/**
+	 * Plays random moves on a ring, taking some of them back and starting again at the end of a
+	 * game, and checks the room after every change.
+	 */
+	private void playRandomly(int size, Random random) {
+		ChairGame	position = new ChairGame(size);
+		int[]	moves = new int[size];
+		int	figures = 0;
+		check(position);
+		for (int step = 0; step < STEPS; step++) {
+			if (figures > 0 && (position.isTerminal() || random.nextInt(4) == 0)) {
+				position.undo();
+				figures--;
+			} else {
+				int	count = position.moves(moves);
+				position.apply(moves[random.nextInt(count)]);
+				figures++;
+			}
+			check(position);
+		}
+	}
+
+	private void check(ChairGame position) {
+		for (Identity player : new Identity[] {Identity.PLAYER_A, Identity.PLAYER_B}) {
+			int	expected = ChairEvaluationFunction3.scan(position, player);
+			assertEquals(expected, position.getRoom(player), () -> player + " in " + position.toString());
+			assertEquals(expected, ef.getValue(position, player));
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the packed and indexed encodings of game states.
+ */
+public class ChairGameTest {
+
+	/**
+	 * Every game state of random games decodes back to itself, with the same player to move.
+	 */
+	@Test
+	public void encodingsOfPlayedGames() {
+		Random	random = new Random(0);
+		for (int size = 1; size <= 70; size++) {
+			for (int game = 0; game < 20; game++) {
+				ChairGame	position = new ChairGame(size);
+				int[]	moves = new int[size];
+				while (true) {
+					check(position);
+					if (position.isTerminal()) break;
+					position.apply(moves[random.nextInt(position.moves(moves))]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Both decodings reject the figures no game reaches.
+	 */
+	@Test
+	public void unreachableFigures() {
+		// three boys and no girl
+		ChairGame	boys = new ChairGame(14);
+		boys.set(0, (byte) Identity.PLAYER_A.value());
+		boys.set(4, (byte) Identity.PLAYER_A.value());
+		boys.set(8, (byte) Identity.PLAYER_A.value());
+		assertUnreachable(boys, 14);
+		// a boy next to a girl
+		ChairGame	neighbours = new ChairGame(14);
+		neighbours.set(0, (byte) Identity.PLAYER_A.value());
+		neighbours.set(1, (byte) Identity.PLAYER_B.value());
+		assertUnreachable(neighbours, 14);
+		// a girl to move after as many boys as girls
+		ChairGame	start = new ChairGame(14);
+		assertThrows(IllegalArgumentException.class, () -> ChairGame.unpack(start.pack() | 1L << 28, 14));
+	}
+
+	/**
+	 * Rings too large for an encoding or a mask are a failure of the caller.
+	 */
+	@Test
+	public void ringsTooLarge() {
+		assertThrows(IllegalStateException.class, () -> new ChairGame(ChairGame.MAX_PACKED_CHAIRS + 1).pack());
+		assertThrows(IllegalStateException.class, () -> new ChairGame(ChairGame.MAX_INDEXED_CHAIRS + 1).getIndex());
+		assertThrows(IllegalArgumentException.class, () -> ChairGame.unpack(0, ChairGame.MAX_PACKED_CHAIRS + 1));
+		assertThrows(IllegalArgumentException.class, () -> ChairGame.fromIndex(0, ChairGame.MAX_INDEXED_CHAIRS + 1));
+		assertThrows(IllegalStateException.class, () -> new ChairGame(ChairGame.MAX_CHAIRS + 1).getMoves());
+		assertThrows(IllegalStateException.class, () -> new ChairGame(ChairGame.MAX_CHAIRS + 1).getMask(Identity.PLAYER_A));
+	}
+
+	private static void assertUnreachable(ChairGame position, int size) {
+		assertThrows(IllegalArgumentException.class, () -> ChairGame.unpack(position.pack(), size));
+		assertThrows(IllegalArgumentException.class, () -> ChairGame.unpack(position.packWords(), size));
+		assertThrows(IllegalArgumentException.class, () -> ChairGame.fromIndex(position.getIndex(), size));
+	}
+
+	private static void check(ChairGame position) {
+		int	size = position.size();
+		assertDecoded(position, ChairGame.unpack(position.packWords(), size));
+		if (size <= ChairGame.MAX_PACKED_CHAIRS) {
+			assertDecoded(position, ChairGame.unpack(position.pack(), size));
+		}
+		if (size <= ChairGame.MAX_INDEXED_CHAIRS) {
+			assertDecoded(position, ChairGame.fromIndex(position.getIndex(), size));
+		}
+	}
+
+	private static void assertDecoded(ChairGame expected, ChairGame actual) {
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals(expected.getNext(), actual.getNext());
+	}
+
+}
@@ -0,0 +1,41 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class MinimaxPlayerTest {
+
+	private final ChairEvaluationFunction3	ef = new ChairEvaluationFunction3();
+
+	private final MinimaxPlayer	minimax = new MinimaxPlayer(Identity.PLAYER_A, 1, ef);
+
+	private final AlphaBetaPlayer	alphaBeta = new AlphaBetaPlayer(Identity.PLAYER_A, 1, ef);
+
+	private final PrincipalVariationPlayer	principalVariation = new PrincipalVariationPlayer(Identity.PLAYER_A, 1, ef);
+
+	/**
+	 * Alpha-beta pruning and the principal variation search without late move reductions return
+	 * the move and the score of minimax, each search starting with an empty transposition table.
+	 */
+	@Test
+	public void sameAsPruningSearches() throws GameException {
+		principalVariation.setLateMoveReductions(false);
+		for (ChairGame position : RandomPositions.positions(150, 8, 14, 24)) {
+			for (int depth = 1; depth <= 5; depth++) {
+				minimax.setIdentity(position.getNext());
+				minimax.setMaxDepth(depth);
+				int	expected = ((Sit) minimax.getOperator(position)).getI();
+				String	message = position + " at depth " + depth;
+				for (AlphaBetaPlayer player : new AlphaBetaPlayer[] {alphaBeta, principalVariation}) {
+					player.setIdentity(position.getNext());
+					player.setMaxDepth(depth);
+					player.getTranspositionTable().clear();
+					assertEquals(expected, ((Sit) player.getOperator(position)).getI(), player.getClass().getSimpleName() + " " + message);
+					assertEquals(minimax.getScore(), player.getScore(), player.getClass().getSimpleName() + " " + message);
+				}
+			}
+		}
+	}
+
+}
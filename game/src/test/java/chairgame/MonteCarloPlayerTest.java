@@ -0,0 +1,85 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class MonteCarloPlayerTest {
+
+	private final ExecutorService	executor = Executors.newSingleThreadExecutor();
+
+	private final MonteCarloPlayer	player = new MonteCarloPlayer(Identity.PLAYER_A, 2);
+
+	@AfterEach
+	public void shutdown() {
+		executor.shutdown();
+		player.shutdown();
+	}
+
+	/**
+	 * Fewer playouts than threads: the threads without a playout must not play until a deadline
+	 * there is none of.
+	 */
+	@Test
+	public void fewerPlayoutsThanThreads() throws Exception {
+		player.setThreads(4);
+		search();
+		assertEquals(2, player.getLastPlayouts());
+	}
+
+	/**
+	 * The playouts shared out over the threads add up to the playouts asked for, also when a
+	 * search leaves out threads the search before used.
+	 */
+	@Test
+	public void playoutsSharedOut() throws Exception {
+		player.setThreads(4);
+		player.setPlayouts(1001);
+		search();
+		assertEquals(1001, player.getLastPlayouts());
+		player.setPlayouts(3);
+		search();
+		assertEquals(3, player.getLastPlayouts());
+	}
+
+	/**
+	 * A search with neither a number of playouts nor a time limit is rejected, also when it runs
+	 * asynchronously and could be cancelled.
+	 */
+	@Test
+	public void unbounded() throws Exception {
+		player.setPlayouts(0);
+		assertThrows(GameException.class, () -> player.getOperator(new ChairGame()));
+		CompletableFuture<Operator>	future = player.getOperatorAsync(new ChairGame(), executor, 0);
+		try {
+			ExecutionException	e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+			assertInstanceOf(GameException.class, e.getCause());
+		} finally {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Chooses a move on the empty ring, checking it is legal. The search runs asynchronously, so
+	 * that a search which does not stop can be cancelled when the test fails.
+	 */
+	private void search() throws Exception {
+		CompletableFuture<Operator>	future = player.getOperatorAsync(new ChairGame(), executor, 0);
+		try {
+			assertTrue(new ChairGame().isApplicable(future.get(10, TimeUnit.SECONDS)));
+		} finally {
+			future.cancel(true);
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ParallelSearchPlayerTest {
+
+	private final ChairEvaluationFunction3	ef = new ChairEvaluationFunction3();
+
+	private final AlphaBetaPlayer	single = new AlphaBetaPlayer(Identity.PLAYER_A, 1, ef);
+
+	private final ParallelSearchPlayer	parallel = new ParallelSearchPlayer(Identity.PLAYER_A, 1, ef, 4);
+
+	@AfterEach
+	public void shutdown() {
+		parallel.shutdown();
+	}
+
+	/**
+	 * The parallel search, splitting every game state, returns the move and the score of the search
+	 * on a single thread. Both start with an empty transposition table, the threads sharing theirs.
+	 */
+	@Test
+	public void sameAsSingleThread() throws GameException {
+		parallel.setSplitDepth(1);
+		for (ChairGame position : RandomPositions.positions(150, 8, 14, 5)) {
+			for (int depth = 1; depth <= 5; depth++) {
+				Operator	expected = search(single, position, depth);
+				Operator	move = search(parallel, position, depth);
+				String	message = position + " at depth " + depth;
+				assertEquals(((Sit) expected).getI(), ((Sit) move).getI(), message);
+				assertEquals(single.getScore(), parallel.getScore(), message);
+			}
+		}
+	}
+
+	private static Operator search(AlphaBetaPlayer player, ChairGame position, int depth) throws GameException {
+		player.setIdentity(position.getNext());
+		player.setMaxDepth(depth);
+		player.getTranspositionTable().clear();
+		return player.getOperator(position);
+	}
+
+}
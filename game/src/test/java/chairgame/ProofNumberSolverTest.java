@@ -0,0 +1,101 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the proof-number search against a search of the whole game tree.
+ */
+public class ProofNumberSolverTest {
+
+	/**
+	 * The largest ring checked.
+	 */
+	private static final int	MAX_SIZE = 14;
+
+	private final ProofNumberSolver	solver = new ProofNumberSolver(1);
+
+	/**
+	 * The outcomes found by the search, by packed game state.
+	 */
+	private final Map<Long, Boolean>	outcomes = new HashMap<Long, Boolean>();
+
+	/**
+	 * The game states of random games are decided as by the search, and a winning move leaves the
+	 * opponent lost.
+	 */
+	@Test
+	public void againstSearch() {
+		Random	random = new Random(0);
+		for (int size = 1; size <= MAX_SIZE; size++) {
+			outcomes.clear();
+			for (int game = 0; game < 10; game++) {
+				ChairGame	position = new ChairGame(size);
+				int[]	moves = new int[size];
+				while (true) {
+					check(position);
+					if (position.isTerminal()) break;
+					position.apply(moves[random.nextInt(position.moves(moves))]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The proof is counted when it is asked for, without changing the game states searched by the
+	 * solve.
+	 */
+	@Test
+	public void proofSize() {
+		assertEquals(0, solver.getProofSize());
+		ChairGame	position = new ChairGame(MAX_SIZE);
+		solver.solve(position);
+		long	nodes = solver.getNodes();
+		long	size = solver.getProofSize();
+		assertTrue(size > 1);
+		assertEquals(nodes, solver.getNodes());
+		assertEquals(size, solver.getProofSize());
+	}
+
+	private void check(ChairGame position) {
+		boolean	win = search(position);
+		assertEquals(win, solver.solve(position), position.toString());
+		int	chair = solver.getWinningMove();
+		if (win) {
+			assertTrue(position.isApplicable(chair), position.toString());
+			ChairGame	child = position.clone();
+			child.apply(chair);
+			assertFalse(search(child), position + " after " + chair);
+		} else {
+			assertEquals(-1, chair, position.toString());
+		}
+	}
+
+	/**
+	 * Returns if the player to move wins, searching every move.
+	 */
+	private boolean search(ChairGame position) {
+		Long	key = position.pack();
+		Boolean	win = outcomes.get(key);
+		if (win == null) {
+			win = Boolean.FALSE;
+			int[]	moves = new int[position.size()];
+			int	count = position.moves(moves);
+			for (int k = 0; k < count && !win; k++) {
+				position.apply(moves[k]);
+				win = !search(position);
+				position.undo();
+			}
+			outcomes.put(key, win);
+		}
+		return win;
+	}
+
+}
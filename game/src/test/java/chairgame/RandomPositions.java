@@ -0,0 +1,39 @@
+package chairgame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random game states the searches are compared on.
+ */
+final class RandomPositions {
+
+	private RandomPositions() {
+	}
+
+	/**
+	 * Returns game states reached by random moves, none of them finished.
+	 *
+	 * @param count The number of game states.
+	 * @param minSize The smallest number of chairs.
+	 * @param maxSize The largest number of chairs.
+	 * @param seed The seed of the random moves.
+	 * @return The game states.
+	 */
+	static List<ChairGame> positions(int count, int minSize, int maxSize, long seed) {
+		Random	random = new Random(seed);
+		List<ChairGame>	positions = new ArrayList<ChairGame>();
+		while (positions.size() < count) {
+			int	size = minSize + random.nextInt(maxSize - minSize + 1);
+			ChairGame	position = new ChairGame(size);
+			int[]	moves = new int[size];
+			for (int plies = random.nextInt(size / 2 + 1); plies > 0 && !position.isTerminal(); plies--) {
+				position.apply(moves[random.nextInt(position.moves(moves))]);
+			}
+			if (!position.isTerminal()) positions.add(position);
+		}
+		return positions;
+	}
+
+}
@@ -0,0 +1,98 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the solver adding up the runs against a search of the whole game tree.
+ */
+public class SegmentSolverTest {
+
+	/**
+	 * The largest ring checked.
+	 */
+	private static final int	MAX_SIZE = 16;
+
+	private final SegmentSolver	solver = new SegmentSolver();
+
+	/**
+	 * The outcomes found by the search, by packed game state.
+	 */
+	private final Map<Long, Boolean>	outcomes = new HashMap<Long, Boolean>();
+
+	/**
+	 * The game states of random games are decided as by the search, and a winning move leaves the
+	 * opponent lost.
+	 */
+	@Test
+	public void againstSearch() {
+		Random	random = new Random(0);
+		for (int size = 1; size <= MAX_SIZE; size++) {
+			outcomes.clear();
+			for (int game = 0; game < 10; game++) {
+				ChairGame	position = new ChairGame(size);
+				int[]	moves = new int[size];
+				while (true) {
+					check(position);
+					if (position.isTerminal()) break;
+					position.apply(moves[random.nextInt(position.moves(moves))]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forgetting the outcomes does not change the next ones.
+	 */
+	@Test
+	public void clear() {
+		ChairGame	position = new ChairGame(MAX_SIZE);
+		position.apply(0);
+		boolean	win = solver.isWin(position);
+		solver.clear();
+		assertEquals(win, solver.isWin(position));
+		assertEquals(search(position), win);
+	}
+
+	private void check(ChairGame position) {
+		boolean	win = search(position);
+		assertEquals(win, solver.isWin(position), position.toString());
+		int	chair = solver.getWinningMove(position);
+		if (win) {
+			assertTrue(position.isApplicable(Sit.of(chair)), position.toString());
+			ChairGame	child = position.clone();
+			child.apply(chair);
+			assertFalse(search(child), position + " after " + chair);
+		} else {
+			assertEquals(-1, chair, position.toString());
+		}
+	}
+
+	/**
+	 * Returns if the player to move wins, searching every move.
+	 */
+	private boolean search(ChairGame position) {
+		Long	key = position.pack();
+		Boolean	win = outcomes.get(key);
+		if (win == null) {
+			win = Boolean.FALSE;
+			int[]	moves = new int[position.size()];
+			int	count = position.moves(moves);
+			for (int k = 0; k < count && !win; k++) {
+				position.apply(moves[k]);
+				win = !search(position);
+				position.undo();
+			}
+			outcomes.put(key, win);
+		}
+		return win;
+	}
+
+}
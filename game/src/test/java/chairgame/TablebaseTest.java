@@ -0,0 +1,75 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the ranking of the placements and the solved entries of small rings.
+ */
+public class TablebaseTest {
+
+	/**
+	 * The largest ring checked.
+	 */
+	private static final int	MAX_SIZE = 12;
+
+	/**
+	 * Every index is the index of its game state, so the ranking is a bijection.
+	 */
+	@Test
+	public void rankOfUnrank() {
+		for (int size = 1; size <= MAX_SIZE; size++) {
+			Tablebase	tablebase = Tablebase.generate(size);
+			for (int index = 0; index < Tablebase.entries(size); index++) {
+				ChairGame	position = tablebase.position(index);
+				assertEquals(index, tablebase.index(position), position.toString());
+			}
+		}
+	}
+
+	/**
+	 * The entries of the game states of random games are the outcome and the distance found by
+	 * searching the whole game tree.
+	 */
+	@Test
+	public void probeAgainstNegamax() {
+		Random	random = new Random(0);
+		for (int size = 1; size <= MAX_SIZE; size++) {
+			Tablebase	tablebase = Tablebase.generate(size);
+			for (int game = 0; game < 10; game++) {
+				ChairGame	position = new ChairGame(size);
+				int[]	moves = new int[size];
+				while (true) {
+					assertEquals(negamax(position), tablebase.probe(position), position.toString());
+					if (position.isTerminal()) break;
+					position.apply(moves[random.nextInt(position.moves(moves))]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the entry of a game state the way the table is solved, from the entries of every
+	 * move.
+	 */
+	private static int negamax(ChairGame position) {
+		int[]	moves = new int[position.size()];
+		int	count = position.moves(moves);
+		int	win = Integer.MAX_VALUE, loss = -1;
+		for (int k = 0; k < count; k++) {
+			position.apply(moves[k]);
+			int	entry = negamax(position);
+			position.undo();
+			if (Tablebase.isWin(entry)) {
+				loss = Math.max(loss, Tablebase.distance(entry));
+			} else {
+				win = Math.min(win, Tablebase.distance(entry));
+			}
+		}
+		return win != Integer.MAX_VALUE ? Tablebase.WIN | (win + 1) : Tablebase.LOSS | (loss + 1);
+	}
+
+}
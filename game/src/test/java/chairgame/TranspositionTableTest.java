@@ -0,0 +1,39 @@
+package chairgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTest {
+
+	@Test
+	public void storeAndProbe() {
+		TranspositionTable	table = new TranspositionTable(1);
+		table.store(42, 7, TranspositionTable.LOWER, -123, 13);
+		long	entry = table.probe(42);
+		assertEquals(-123, TranspositionTable.score(entry));
+		assertEquals(7, TranspositionTable.depth(entry));
+		assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+		assertEquals(13, TranspositionTable.move(entry));
+	}
+
+	/**
+	 * A move on a chair too high for an entry is left out, and does not spill into the rest of it.
+	 */
+	@Test
+	public void moveOnLargeRing() {
+		TranspositionTable	table = new TranspositionTable(1);
+		table.store(42, 7, TranspositionTable.EXACT, 5, (1 << 17) - 2);
+		assertEquals((1 << 17) - 2, TranspositionTable.move(table.probe(42)));
+		table.store(43, 7, TranspositionTable.EXACT, 5, 99999999);
+		long	entry = table.probe(43);
+		assertEquals(-1, TranspositionTable.move(entry));
+		assertEquals(7, TranspositionTable.depth(entry));
+		assertEquals(TranspositionTable.EXACT, TranspositionTable.bound(entry));
+		// a new search replaces the entries of the earlier one
+		table.newSearch();
+		table.store(43, 1, TranspositionTable.UPPER, 6, 3);
+		assertEquals(3, TranspositionTable.move(table.probe(43)));
+	}
+
+}